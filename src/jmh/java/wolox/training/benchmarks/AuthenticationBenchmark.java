@@ -0,0 +1,66 @@
+package wolox.training.benchmarks;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import wolox.training.models.User;
+import wolox.training.security.CustomAuthenticationProvider;
+import wolox.training.services.UserService;
+
+/**
+ * Measures the authenticated requests per second that {@link CustomAuthenticationProvider} allows
+ * when a client sends the same Basic credentials on every request, with and without the cache of
+ * verified credentials. Without it every request loads the user and runs bcrypt.
+ *
+ * @author M. G.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class AuthenticationBenchmark {
+
+    private static final String USERNAME = "benchmark";
+    private static final String PASSWORD = "benchmark-password";
+
+    @Param({"false", "true"})
+    private boolean cached;
+
+    private ConfigurableApplicationContext context;
+    private CustomAuthenticationProvider authenticationProvider;
+    private Authentication credentials;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("security.credentialCache.enabled=" + cached);
+        authenticationProvider = context.getBean(CustomAuthenticationProvider.class);
+        context.getBean(UserService.class).createUser(new User(USERNAME, "Benchmark",
+            LocalDate.of(1990, 1, 1), PASSWORD));
+
+        credentials = new UsernamePasswordAuthenticationToken(USERNAME, PASSWORD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return authenticationProvider.authenticate(credentials);
+    }
+}
@@ -0,0 +1,37 @@
+package wolox.training.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import wolox.training.TrainingApplication;
+
+/**
+ * Starts the application against an in-memory H2 database for the benchmarks. The schema is
+ * created by the migrations, as in production.
+ *
+ * @author M. G.
+ */
+
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<String>(Arrays.asList(
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--logging.level.root=WARN"));
+
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+
+        return SpringApplication.run(TrainingApplication.class, args.toArray(new String[0]));
+    }
+}
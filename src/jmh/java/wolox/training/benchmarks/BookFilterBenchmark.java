@@ -0,0 +1,128 @@
+package wolox.training.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookFilter;
+import wolox.training.repositories.BookRepository;
+
+/**
+ * Compares the former catch-all JPQL filter with the specification based one on a seeded table.
+ *
+ * @author M. G.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookFilterBenchmark {
+
+    private static final String CATCH_ALL_FILTER = " FROM Book u WHERE (:id IS NULL OR u.id = :id)"
+        + " AND (u.genre LIKE CONCAT('%', :genre, '%')) AND"
+        + " (:author IS NULL OR u.author = :author) AND"
+        + " (:image IS NULL OR u.image = :image) AND"
+        + " (:title IS NULL OR u.title = :title) AND"
+        + " (:subtitle IS NULL OR u.subtitle = :subtitle) AND"
+        + " (:publisher IS NULL OR u.publisher = :publisher) AND"
+        + " (:year IS NULL OR u.year = :year) AND"
+        + " (:pages IS NULL OR u.pages = :pages) AND"
+        + " (:isbn IS NULL OR u.isbn = :isbn)";
+
+    @Param({"100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private EntityManagerFactory entityManagerFactory;
+    private final Pageable pageable = PageRequest.of(0, 20);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookRepository = context.getBean(BookRepository.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        BookSeeder.seed(context.getBean(JdbcTemplate.class), rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Book> catchAllByIsbn() {
+        return catchAll(filter(null, BookSeeder.isbn(rows / 2)));
+    }
+
+    @Benchmark
+    public Page<Book> specificationByIsbn() {
+        return bookRepository.findByFilter(filter(null, BookSeeder.isbn(rows / 2)), pageable);
+    }
+
+    @Benchmark
+    public List<Book> catchAllByPublisher() {
+        return catchAll(filter("publisher 42", null));
+    }
+
+    @Benchmark
+    public Page<Book> specificationByPublisher() {
+        return bookRepository.findByFilter(filter("publisher 42", null), pageable);
+    }
+
+    private BookFilter filter(String publisher, String isbn) {
+        return new BookFilter(null, "", null, null, null, null, publisher, null, null, isbn);
+    }
+
+    private List<Book> catchAll(BookFilter filter) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+
+        try {
+            TypedQuery<Book> query = entityManager
+                .createQuery("SELECT u" + CATCH_ALL_FILTER, Book.class);
+            TypedQuery<Long> count = entityManager
+                .createQuery("SELECT COUNT(u)" + CATCH_ALL_FILTER, Long.class);
+
+            bind(query, filter);
+            bind(count, filter);
+
+            count.getSingleResult();
+
+            return query.setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private void bind(TypedQuery<?> query, BookFilter filter) {
+        query.setParameter("id", filter.getId())
+            .setParameter("genre", filter.getGenre())
+            .setParameter("author", filter.getAuthor())
+            .setParameter("image", filter.getImage())
+            .setParameter("title", filter.getTitle())
+            .setParameter("subtitle", filter.getSubtitle())
+            .setParameter("publisher", filter.getPublisher())
+            .setParameter("year", filter.getYear())
+            .setParameter("pages", filter.getPages())
+            .setParameter("isbn", filter.getIsbn());
+    }
+}
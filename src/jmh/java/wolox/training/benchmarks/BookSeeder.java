@@ -0,0 +1,80 @@
+package wolox.training.benchmarks;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Fills the book and users tables with synthetic rows for the benchmarks.
+ *
+ * @author M. G.
+ */
+
+public final class BookSeeder {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT = "INSERT INTO book (id, genre, author, image, title,"
+        + " subtitle, publisher, year, pages, isbn) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_USER = "INSERT INTO users (id, username, name, password,"
+        + " birth_date) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INSERT_USER_BOOK = "INSERT INTO users_books (users_id, books_id)"
+        + " VALUES (?, ?)";
+
+    private BookSeeder() {
+    }
+
+    public static void seed(JdbcTemplate jdbcTemplate, int rows) {
+        List<Object[]> batch = new ArrayList<Object[]>(BATCH_SIZE);
+
+        for (int i = 1; i <= rows; i++) {
+            batch.add(new Object[]{(long) i, "genre " + (i % 20), "author " + (i % 5000),
+                "image.jpg", "title " + i, "subtitle " + i, "publisher " + (i % 500),
+                String.valueOf(1900 + i % 120), 100 + i % 900, isbn(i)});
+
+            if (batch.size() == BATCH_SIZE || i == rows) {
+                jdbcTemplate.batchUpdate(INSERT, batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Insert users that own some of the books, which must be seeded before.
+     *
+     * @param jdbcTemplate the template of the benchmark database
+     * @param users        the amount of users
+     * @param booksPerUser the amount of books of every user
+     * @param books        the amount of books seeded
+     */
+
+    public static void seedUsers(JdbcTemplate jdbcTemplate, int users, int booksPerUser,
+        int books) {
+        List<Object[]> userBatch = new ArrayList<Object[]>(BATCH_SIZE);
+        List<Object[]> bookBatch = new ArrayList<Object[]>(BATCH_SIZE);
+
+        for (int i = 1; i <= users; i++) {
+            userBatch.add(new Object[]{(long) i, "user" + i, "User " + i, "password",
+                Date.valueOf(LocalDate.of(1950 + i % 50, 1, 1))});
+
+            for (int j = 0; j < booksPerUser; j++) {
+                bookBatch.add(new Object[]{(long) i, (long) ((i * booksPerUser + j) % books + 1)});
+            }
+
+            if (userBatch.size() == BATCH_SIZE || i == users) {
+                jdbcTemplate.batchUpdate(INSERT_USER, userBatch);
+                jdbcTemplate.batchUpdate(INSERT_USER_BOOK, bookBatch);
+                userBatch.clear();
+                bookBatch.clear();
+            }
+        }
+    }
+
+    public static String isbn(int row) {
+        return String.format("%013d", row);
+    }
+}
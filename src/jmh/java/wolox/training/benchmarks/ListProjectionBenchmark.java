@@ -0,0 +1,111 @@
+package wolox.training.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import wolox.training.dto.BookDTO;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookFilter;
+import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.UserRepository;
+
+/**
+ * Compares reading and serializing a page of the list endpoints as managed entities, as they were
+ * read before, and as projections in read-only transactions. Run it with the gc profiler to get
+ * the allocation per operation next to the latency.
+ *
+ * @author M. G.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListProjectionBenchmark {
+
+    private static final BookFilter ALL = new BookFilter(null, "", null, null, null, null, null,
+        null, null, null);
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"100"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private UserRepository userRepository;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        bookRepository = context.getBean(BookRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        PlatformTransactionManager transactionManager = context
+            .getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BookSeeder.seed(jdbcTemplate, rows);
+        BookSeeder.seedUsers(jdbcTemplate, rows / 100, 20, rows);
+
+        pageable = PageRequest.of(10, pageSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] booksAsEntities() {
+        return readWrite.execute(status -> serialize(bookRepository.findSliceByFilter(ALL,
+            pageable, Book.class)));
+    }
+
+    @Benchmark
+    public byte[] booksAsProjections() {
+        return readOnly.execute(status -> serialize(bookRepository.findSliceByFilter(ALL,
+            pageable, BookDTO.class)));
+    }
+
+    @Benchmark
+    public byte[] usersAsEntities() {
+        return readWrite.execute(status -> serialize(userRepository.findAll(pageable)));
+    }
+
+    @Benchmark
+    public byte[] usersAsProjections() {
+        return readOnly.execute(status -> serialize(userRepository.findSummarySlice(pageable)));
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package wolox.training.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.ByteStreams;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import wolox.training.dto.OpenLibraryBookDTO;
+import wolox.training.services.OpenLibraryResponseParser;
+
+/**
+ * Compares binding an answer of OpenLibrary to a map of DTOs, as it was read before, with reading
+ * it token by token. The payload has the shape of the {@code jscmd=data} answers, with subjects,
+ * excerpts, links and identifiers. Run it with the gc profiler to get the allocation per operation
+ * next to the latency.
+ *
+ * @author M. G.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OpenLibraryParsingBenchmark {
+
+    private static final TypeReference<Map<String, OpenLibraryBookDTO>> BOOKS =
+        new TypeReference<Map<String, OpenLibraryBookDTO>>() {
+        };
+
+    private ObjectMapper objectMapper;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        try (InputStream in = getClass().getResourceAsStream("/openlibrary_books.json")) {
+            payload = ByteStreams.toByteArray(in);
+        }
+    }
+
+    @Benchmark
+    public void databind(Blackhole blackhole) throws IOException {
+        Map<String, OpenLibraryBookDTO> books = objectMapper
+            .readValue(new ByteArrayInputStream(payload), BOOKS);
+
+        for (OpenLibraryBookDTO book : books.values()) {
+            blackhole.consume(book.getJoinedAuthors());
+            blackhole.consume(book.getJoinedPublishers());
+        }
+    }
+
+    @Benchmark
+    public void streaming(Blackhole blackhole) throws IOException {
+        Map<String, OpenLibraryBookDTO> books = OpenLibraryResponseParser
+            .parse(new ByteArrayInputStream(payload));
+
+        for (OpenLibraryBookDTO book : books.values()) {
+            blackhole.consume(book.getJoinedAuthors());
+            blackhole.consume(book.getJoinedPublishers());
+        }
+    }
+}
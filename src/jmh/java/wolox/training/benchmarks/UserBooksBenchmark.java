@@ -0,0 +1,94 @@
+package wolox.training.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import wolox.training.models.Book;
+import wolox.training.models.User;
+import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.UserRepository;
+import wolox.training.services.UserService;
+
+/**
+ * Measures adding a book to a user that already has many books and removing it again, by loading
+ * the books of the user and saving it, as the endpoints did before, and by writing only the row of
+ * the join table.
+ *
+ * @author M. G.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserBooksBenchmark {
+
+    private static final long USER_ID = 1;
+
+    @Param({"10000"})
+    private int booksPerUser;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private BookRepository bookRepository;
+    private UserService userService;
+    private TransactionTemplate transactionTemplate;
+    private long bookId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        userRepository = context.getBean(UserRepository.class);
+        bookRepository = context.getBean(BookRepository.class);
+        userService = context.getBean(UserService.class);
+        transactionTemplate = new TransactionTemplate(
+            context.getBean(PlatformTransactionManager.class));
+
+        // The only user owns every seeded book but one, which is the one added and removed
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BookSeeder.seed(jdbcTemplate, booksPerUser + 1);
+        BookSeeder.seedUsers(jdbcTemplate, 1, booksPerUser, booksPerUser + 1);
+        bookId = booksPerUser;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void loadAndSave() {
+        transactionTemplate.execute(status -> {
+            User user = userRepository.findById(USER_ID).get();
+            user.addBook(bookRepository.findById(bookId).get());
+
+            return userRepository.save(user);
+        });
+        transactionTemplate.execute(status -> {
+            User user = userRepository.findById(USER_ID).get();
+            user.deleteBook(bookRepository.findById(bookId).get());
+
+            return userRepository.save(user);
+        });
+    }
+
+    @Benchmark
+    public void joinTableRow() {
+        User user = userRepository.findById(USER_ID).get();
+        Book book = bookRepository.findById(bookId).get();
+
+        userService.addBook(user, book);
+        userService.deleteBook(user, book);
+    }
+}
@@ -0,0 +1,132 @@
+package wolox.training.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Shared HTTP client of OpenLibrary. Connections are pooled and kept alive between requests,
+ * and every request has connect, read and pool lease timeouts, so a slow upstream cannot hold a
+ * request thread forever. The pool is published as the {@code httpcomponents.httpclient.pool.*}
+ * metrics of the {@code openLibrary} pool.
+ *
+ * @author M. G.
+ */
+
+@Configuration
+public class OpenLibraryClientConfig {
+
+    @Value("${openLibrary.http.maxConnections:50}")
+    private int maxConnections;
+
+    @Value("${openLibrary.http.maxConnectionsPerRoute:20}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${openLibrary.http.connectTimeoutMillis:2000}")
+    private int connectTimeoutMillis;
+
+    @Value("${openLibrary.http.readTimeoutMillis:5000}")
+    private int readTimeoutMillis;
+
+    @Value("${openLibrary.http.leaseTimeoutMillis:1000}")
+    private int leaseTimeoutMillis;
+
+    @Value("${openLibrary.http.keepAliveSeconds:30}")
+    private long keepAliveSeconds;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager openLibraryConnectionManager(
+        ObjectProvider<MeterRegistry> meterRegistry) {
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(
+            keepAliveSeconds * 2, TimeUnit.SECONDS);
+        manager.setMaxTotal(maxConnections);
+        manager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        manager.setValidateAfterInactivity(2000);
+
+        meterRegistry.ifAvailable(registry ->
+            new PoolingHttpClientConnectionManagerMetricsBinder(manager, "openLibrary")
+                .bindTo(registry));
+
+        return manager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient openLibraryHttpClient(
+        PoolingHttpClientConnectionManager openLibraryConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(connectTimeoutMillis)
+            .setSocketTimeout(readTimeoutMillis)
+            .setConnectionRequestTimeout(leaseTimeoutMillis)
+            .build();
+
+        return HttpClients.custom()
+            .setConnectionManager(openLibraryConnectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy(keepAliveStrategy())
+            .evictExpiredConnections()
+            .evictIdleConnections(keepAliveSeconds, TimeUnit.SECONDS)
+            .build();
+    }
+
+    @Bean
+    public RestTemplate openLibraryRestTemplate(CloseableHttpClient openLibraryHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(openLibraryHttpClient));
+    }
+
+    /**
+     * Client of the cover images, on the same pool. It does not follow redirects, so a cover host
+     * cannot send the download to another host.
+     */
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient coverHttpClient(
+        PoolingHttpClientConnectionManager openLibraryConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(connectTimeoutMillis)
+            .setSocketTimeout(readTimeoutMillis)
+            .setConnectionRequestTimeout(leaseTimeoutMillis)
+            .setRedirectsEnabled(false)
+            .build();
+
+        return HttpClients.custom()
+            .setConnectionManager(openLibraryConnectionManager)
+            .setConnectionManagerShared(true)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy(keepAliveStrategy())
+            .disableRedirectHandling()
+            .build();
+    }
+
+    @Bean
+    public RestTemplate coverRestTemplate(CloseableHttpClient coverHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(coverHttpClient));
+    }
+
+    /**
+     * Keep the connections for as long as the server allows, or for the configured time when the
+     * server does not say.
+     */
+
+    private ConnectionKeepAliveStrategy keepAliveStrategy() {
+        long defaultMillis = TimeUnit.SECONDS.toMillis(keepAliveSeconds);
+
+        return (response, context) -> {
+            long millis = DefaultConnectionKeepAliveStrategy.INSTANCE
+                .getKeepAliveDuration(response, context);
+
+            return millis > 0 ? millis : defaultMillis;
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package wolox.training.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRateLimiterMetrics;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Protection of the application from a degraded OpenLibrary. The circuit breaker stops calling
+ * it when too many requests fail or are slow, the bulkhead caps the concurrent requests and the
+ * rate limiter keeps them within the quota of the upstream. Their state, calls and transitions
+ * are published as the {@code resilience4j.*} metrics of {@code openLibrary}.
+ *
+ * @author M. G.
+ */
+
+@Configuration
+public class OpenLibraryResilienceConfig {
+
+    private static final String NAME = "openLibrary";
+
+    @Value("${openLibrary.circuitBreaker.failureRate:50}")
+    private float failureRate;
+
+    @Value("${openLibrary.circuitBreaker.slowCallRate:80}")
+    private float slowCallRate;
+
+    @Value("${openLibrary.circuitBreaker.slowCallMillis:3000}")
+    private long slowCallMillis;
+
+    @Value("${openLibrary.circuitBreaker.windowSize:20}")
+    private int windowSize;
+
+    @Value("${openLibrary.circuitBreaker.minimumCalls:10}")
+    private int minimumCalls;
+
+    @Value("${openLibrary.circuitBreaker.openSeconds:30}")
+    private long openSeconds;
+
+    @Value("${openLibrary.bulkhead.maxConcurrentCalls:10}")
+    private int maxConcurrentCalls;
+
+    @Value("${openLibrary.rateLimiter.requestsPerSecond:10}")
+    private int requestsPerSecond;
+
+    @Value("${openLibrary.rateLimiter.waitMillis:100}")
+    private long rateLimiterWaitMillis;
+
+    @Bean
+    public CircuitBreaker openLibraryCircuitBreaker(ObjectProvider<MeterRegistry> meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .failureRateThreshold(failureRate)
+            .slowCallRateThreshold(slowCallRate)
+            .slowCallDurationThreshold(Duration.ofMillis(slowCallMillis))
+            .slidingWindowSize(windowSize)
+            .minimumNumberOfCalls(minimumCalls)
+            .waitDurationInOpenState(Duration.ofSeconds(openSeconds))
+            .recordExceptions(RestClientException.class)
+            .build());
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(NAME);
+
+        meterRegistry.ifAvailable(meters -> {
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meters);
+            circuitBreaker.getEventPublisher().onStateTransition(event -> meters
+                .counter("openLibrary.circuitBreaker.transitions",
+                    "from", event.getStateTransition().getFromState().name(),
+                    "to", event.getStateTransition().getToState().name())
+                .increment());
+        });
+
+        return circuitBreaker;
+    }
+
+    @Bean
+    public Bulkhead openLibraryBulkhead(ObjectProvider<MeterRegistry> meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(maxConcurrentCalls)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        Bulkhead bulkhead = registry.bulkhead(NAME);
+
+        meterRegistry.ifAvailable(meters ->
+            TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meters));
+
+        return bulkhead;
+    }
+
+    @Bean
+    public RateLimiter openLibraryRateLimiter(ObjectProvider<MeterRegistry> meterRegistry) {
+        RateLimiterRegistry registry = RateLimiterRegistry.of(RateLimiterConfig.custom()
+            .limitForPeriod(requestsPerSecond)
+            .limitRefreshPeriod(Duration.ofSeconds(1))
+            .timeoutDuration(Duration.ofMillis(rateLimiterWaitMillis))
+            .build());
+        RateLimiter rateLimiter = registry.rateLimiter(NAME);
+
+        meterRegistry.ifAvailable(meters ->
+            TaggedRateLimiterMetrics.ofRateLimiterRegistry(registry).bindTo(meters));
+
+        return rateLimiter;
+    }
+}
@@ -1,14 +1,20 @@
 package wolox.training.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import wolox.training.security.CustomAuthenticationProvider;
+import wolox.training.security.TokenAuthenticationFilter;
+import wolox.training.security.TokenService;
 
 @Configuration
 @EnableWebSecurity
@@ -17,6 +23,22 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private CustomAuthenticationProvider authProvider;
 
+    /**
+     * Present only when {@code security.token.enabled} is on, and then the API also accepts bearer
+     * access tokens and serves {@code /api/auth}.
+     */
+
+    @Autowired(required = false)
+    private TokenService tokenService;
+
+    /**
+     * Whether the legacy clients can still authenticate every request with HTTP Basic. Otherwise
+     * the password is only sent to log in, and the requests carry bearer access tokens.
+     */
+
+    @Value("${security.basicAuth.enabled:true}")
+    private boolean basicAuthEnabled;
+
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
         auth.authenticationProvider(authProvider);
@@ -24,16 +46,34 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
+        if (!basicAuthEnabled && tokenService == null) {
+            throw new IllegalStateException("security.basicAuth.enabled is false, so"
+                + " security.token.enabled must be true or no request can authenticate");
+        }
+
         http.csrf().disable()
             .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             .and()
             .authorizeRequests()
             .antMatchers(HttpMethod.POST, "/api/books", "/api/users")
-            .permitAll()
-            .and()
-            .httpBasic()
-            .and()
-            .authorizeRequests().antMatchers("/**")
+            .permitAll();
+
+        if (tokenService != null) {
+            http.addFilterBefore(new TokenAuthenticationFilter(tokenService),
+                BasicAuthenticationFilter.class)
+                .authorizeRequests()
+                .antMatchers(HttpMethod.POST, "/api/auth/login", "/api/auth/refresh")
+                .permitAll();
+        }
+
+        if (basicAuthEnabled) {
+            http.httpBasic();
+        } else {
+            http.exceptionHandling()
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED));
+        }
+
+        http.authorizeRequests().antMatchers("/**")
             .authenticated();
     }
 }
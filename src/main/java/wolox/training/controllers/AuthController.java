@@ -0,0 +1,92 @@
+package wolox.training.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import wolox.training.dto.LoginDTO;
+import wolox.training.dto.RefreshDTO;
+import wolox.training.dto.TokenDTO;
+import wolox.training.exceptions.InvalidCredentialsException;
+import wolox.training.models.User;
+import wolox.training.repositories.UserRepository;
+import wolox.training.security.CustomAuthenticationProvider;
+import wolox.training.security.TokenClaims;
+import wolox.training.security.TokenService;
+
+/**
+ * Controller for the tokens of the API, served only when {@code security.token.enabled} is true
+ *
+ * @author M. G.
+ */
+
+@RestController
+@ConditionalOnProperty(name = "security.token.enabled", havingValue = "true")
+@RequestMapping("/api/auth")
+public class AuthController {
+
+    @Autowired
+    private CustomAuthenticationProvider authenticationProvider;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenService tokenService;
+
+    /**
+     * Verify the password of a {@link User} once and issue its tokens.
+     *
+     * @param login the username and the password of the user
+     * @return an access token and a refresh token
+     */
+
+    @PostMapping("/login")
+    public TokenDTO login(@RequestBody LoginDTO login) {
+        if (login.getUsername() == null || login.getPassword() == null) {
+            throw new InvalidCredentialsException();
+        }
+
+        if (authenticationProvider.authenticate(new UsernamePasswordAuthenticationToken(
+            login.getUsername(), login.getPassword())) == null) {
+            throw new InvalidCredentialsException();
+        }
+
+        return issue(userRepository.findByUsername(login.getUsername())
+            .orElseThrow(InvalidCredentialsException::new));
+    }
+
+    /**
+     * Exchange a refresh token for new tokens. The refresh token is rejected when its user was
+     * deleted or changed its password since it was issued.
+     *
+     * @param refresh the refresh token
+     * @return an access token and a refresh token
+     */
+
+    @PostMapping("/refresh")
+    public TokenDTO refresh(@RequestBody RefreshDTO refresh) {
+        TokenClaims claims = refresh.getRefreshToken() == null ? null
+            : tokenService.verify(refresh.getRefreshToken(), TokenService.Type.REFRESH);
+
+        if (claims == null) {
+            throw new InvalidCredentialsException();
+        }
+
+        User user = userRepository.findByUsername(claims.getUsername())
+            .filter(found -> tokenService.matchesPassword(claims, found.getPassword()))
+            .orElseThrow(InvalidCredentialsException::new);
+
+        return issue(user);
+    }
+
+    private TokenDTO issue(User user) {
+        return new TokenDTO(
+            tokenService.issue(TokenService.Type.ACCESS, user.getUsername(), null),
+            tokenService.issue(TokenService.Type.REFRESH, user.getUsername(), user.getPassword()),
+            tokenService.getAccessTtlSeconds());
+    }
+}
@@ -1,8 +1,18 @@
 package wolox.training.controllers;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,11 +25,31 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import wolox.training.dto.BookDTO;
+import wolox.training.dto.BulkResultDTO;
+import wolox.training.dto.CountMode;
+import wolox.training.dto.CoverSize;
+import wolox.training.dto.ExportFormat;
+import wolox.training.dto.FacetsDTO;
+import wolox.training.dto.KeysetPageDTO;
+import wolox.training.dto.SliceDTO;
 import wolox.training.exceptions.BookIdMismatchException;
 import wolox.training.exceptions.BookNotFoundException;
+import wolox.training.exceptions.TooManyIsbnsException;
 import wolox.training.models.Book;
+import wolox.training.repositories.BookCursor;
+import wolox.training.repositories.BookFilter;
 import wolox.training.repositories.BookRepository;
+import wolox.training.services.BookBulkService;
+import wolox.training.services.BookExportService;
+import wolox.training.services.BookFacetService;
+import wolox.training.services.BookSearchService;
+import wolox.training.services.BookTrigramService;
+import wolox.training.services.CoverImageService;
 import wolox.training.services.OpenLibraryService;
+import wolox.training.services.RowCountEstimator;
+import wolox.training.store.CoverStore.CoverFile;
 
 /**
  * Controller for Books
@@ -31,12 +61,46 @@ import wolox.training.services.OpenLibraryService;
 @RequestMapping("/api/books")
 public class BookController {
 
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    private static final int MAX_FACET_VALUES = 100;
+
+    private static final int MAX_SEARCH_ISBNS = 100;
+
+    /**
+     * Filtered estimates count the matching books up to this amount, and report when it is hit.
+     */
+    private static final int MAX_FILTERED_COUNT = 10000;
+
+    private static final long COVER_MAX_AGE_DAYS = 30;
+
     @Autowired
     private BookRepository bookRepository;
 
     @Autowired
     private OpenLibraryService openLibraryService;
 
+    @Autowired
+    private BookSearchService bookSearchService;
+
+    @Autowired
+    private BookTrigramService bookTrigramService;
+
+    @Autowired
+    private RowCountEstimator rowCountEstimator;
+
+    @Autowired
+    private BookExportService bookExportService;
+
+    @Autowired
+    private BookBulkService bookBulkService;
+
+    @Autowired
+    private BookFacetService bookFacetService;
+
+    @Autowired
+    private CoverImageService coverImageService;
+
     /**
      * Greet a person.
      *
@@ -53,35 +117,176 @@ public class BookController {
     }
 
     /**
-     * Find all {@link Book}s by some criteria.
+     * Find all {@link Book}s by some criteria. When the {@code after} cursor is sent (empty for
+     * the first page) the books are paged by keyset instead of by offset. Otherwise a slice is
+     * returned, with an estimated total if the count is {@code estimate}, or a page with the
+     * exact total if the count is {@code exact}. The estimated total of a filter is counted up to
+     * 10000 books, and {@code totalCapped} is true when more books match. Only the columns of the
+     * books are read, into {@link BookDTO}s.
      *
-     * @param id        the id of the books
-     * @param genre     the genre of the books
-     * @param author    the author of the books
-     * @param image     the image of the books
-     * @param title     the title of the books
-     * @param subtitle  the subtitle of the books
-     * @param publisher the publisher of the books
-     * @param year      the year of the books
-     * @param pages     the pages of the books
-     * @param isbn      the isbn of the books
-     * @param pageable  the parameters about pagination and sorting of the books
+     * @param id            the id of the books
+     * @param genre         a text contained in the genre of the books
+     * @param genreContains a text contained in the genre of the books, it replaces genre
+     * @param titleContains a text contained in the title of the books
+     * @param author        the author of the books
+     * @param image         the image of the books
+     * @param title         the title of the books
+     * @param subtitle      the subtitle of the books
+     * @param publisher     the publisher of the books
+     * @param year          the year of the books
+     * @param pages         the pages of the books
+     * @param isbn          the isbn of the books
+     * @param after         the cursor returned with the previous page of books
+     * @param count         how to count the books: none, estimate or exact
+     * @param pageable      the parameters about pagination and sorting of the books
      * @return all the books that are persisted and match the criteria
      */
 
     @GetMapping
-    public Iterable findAll(@RequestParam(required = false) Long id,
+    public Object findAll(@RequestParam(required = false) Long id,
         @RequestParam(defaultValue = "") String genre,
+        @RequestParam(required = false) String genreContains,
+        @RequestParam(required = false) String titleContains,
         @RequestParam(required = false) String author, @RequestParam(required = false) String image,
         @RequestParam(required = false) String title,
         @RequestParam(required = false) String subtitle,
         @RequestParam(required = false) String publisher,
         @RequestParam(required = false) String year,
         @RequestParam(required = false) Integer pages,
-        @RequestParam(required = false) String isbn, Pageable pageable) {
-        return bookRepository
-            .findByAllFields(id, genre, author, image, title, subtitle, publisher, year, pages,
-                isbn, pageable);
+        @RequestParam(required = false) String isbn,
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "none") String count, Pageable pageable) {
+        CountMode countMode = CountMode.from(count);
+        BookFilter filter = filter(id, genre, genreContains, titleContains, author, image, title,
+            subtitle, publisher, year, pages, isbn);
+
+        if (after != null) {
+            BookCursor cursor = after.isEmpty() ? BookCursor.first(pageable.getSort())
+                : BookCursor.decode(after);
+
+            return findAllAfter(filter, cursor, pageable.getPageSize());
+        }
+
+        if (countMode == CountMode.EXACT) {
+            return bookRepository.findPageByFilter(filter, pageable, BookDTO.class);
+        }
+
+        Long estimatedTotal = null;
+        Boolean totalCapped = null;
+
+        if (countMode == CountMode.ESTIMATE && filter.isEmpty()) {
+            estimatedTotal = rowCountEstimator.estimate("book", bookRepository::count);
+            totalCapped = false;
+        } else if (countMode == CountMode.ESTIMATE) {
+            long counted = bookRepository.countByFilterUpTo(filter, MAX_FILTERED_COUNT + 1);
+            estimatedTotal = Math.min(counted, MAX_FILTERED_COUNT);
+            totalCapped = counted > MAX_FILTERED_COUNT;
+        }
+
+        return new SliceDTO<BookDTO>(bookRepository.findSliceByFilter(filter, pageable,
+            BookDTO.class), estimatedTotal, totalCapped);
+    }
+
+    /**
+     * Export all {@link Book}s that match some criteria, ordered by id. The books are streamed as
+     * they are read, so the whole catalog can be exported in a single request.
+     *
+     * @param id            the id of the books
+     * @param genre         a text contained in the genre of the books
+     * @param genreContains a text contained in the genre of the books, it replaces genre
+     * @param titleContains a text contained in the title of the books
+     * @param author        the author of the books
+     * @param image         the image of the books
+     * @param title         the title of the books
+     * @param subtitle      the subtitle of the books
+     * @param publisher     the publisher of the books
+     * @param year          the year of the books
+     * @param pages         the pages of the books
+     * @param isbn          the isbn of the books
+     * @param format        the format of the export: ndjson or csv
+     * @param response      the response where the books are written
+     */
+
+    @GetMapping("/export")
+    public void export(@RequestParam(required = false) Long id,
+        @RequestParam(defaultValue = "") String genre,
+        @RequestParam(required = false) String genreContains,
+        @RequestParam(required = false) String titleContains,
+        @RequestParam(required = false) String author, @RequestParam(required = false) String image,
+        @RequestParam(required = false) String title,
+        @RequestParam(required = false) String subtitle,
+        @RequestParam(required = false) String publisher,
+        @RequestParam(required = false) String year,
+        @RequestParam(required = false) Integer pages,
+        @RequestParam(required = false) String isbn,
+        @RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response)
+        throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        BookFilter filter = filter(id, genre, genreContains, titleContains, author, image, title,
+            subtitle, publisher, year, pages, isbn);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"books." + exportFormat.getExtension() + "\"");
+
+        bookExportService.export(filter, exportFormat, response.getOutputStream());
+    }
+
+    /**
+     * Count the {@link Book}s that match some criteria per genre, publisher and year.
+     *
+     * @param id            the id of the books
+     * @param genre         a text contained in the genre of the books
+     * @param genreContains a text contained in the genre of the books, it replaces genre
+     * @param titleContains a text contained in the title of the books
+     * @param author        the author of the books
+     * @param image         the image of the books
+     * @param title         the title of the books
+     * @param subtitle      the subtitle of the books
+     * @param publisher     the publisher of the books
+     * @param year          the year of the books
+     * @param pages         the pages of the books
+     * @param isbn          the isbn of the books
+     * @param limit         the maximum amount of values returned per attribute
+     * @return the counts per value and the distinct authors and publishers of the catalog
+     */
+
+    @GetMapping("/facets")
+    public FacetsDTO facets(@RequestParam(required = false) Long id,
+        @RequestParam(defaultValue = "") String genre,
+        @RequestParam(required = false) String genreContains,
+        @RequestParam(required = false) String titleContains,
+        @RequestParam(required = false) String author, @RequestParam(required = false) String image,
+        @RequestParam(required = false) String title,
+        @RequestParam(required = false) String subtitle,
+        @RequestParam(required = false) String publisher,
+        @RequestParam(required = false) String year,
+        @RequestParam(required = false) Integer pages,
+        @RequestParam(required = false) String isbn,
+        @RequestParam(defaultValue = "20") int limit) {
+        BookFilter filter = filter(id, genre, genreContains, titleContains, author, image, title,
+            subtitle, publisher, year, pages, isbn);
+
+        return bookFacetService.facets(filter, Math.min(limit, MAX_FACET_VALUES));
+    }
+
+    private BookFilter filter(Long id, String genre, String genreContains, String titleContains,
+        String author, String image, String title, String subtitle, String publisher,
+        String year, Integer pages, String isbn) {
+        return bookTrigramService.narrow(new BookFilter(id,
+            genreContains != null ? genreContains : genre, author, image, title, subtitle,
+            publisher, year, pages, isbn, titleContains, null));
+    }
+
+    private KeysetPageDTO<BookDTO> findAllAfter(BookFilter filter, BookCursor cursor, int size) {
+        Slice<BookDTO> books = bookRepository.findByFilterAfter(filter, cursor, size,
+            BookDTO.class);
+        List<BookDTO> content = books.getContent();
+        String next = books.hasNext() ? cursor.next(content.get(content.size() - 1)).encode()
+            : null;
+
+        return new KeysetPageDTO<BookDTO>(content, size, books.hasNext(), next);
     }
 
     /**
@@ -97,17 +302,78 @@ public class BookController {
             .orElseThrow(BookNotFoundException::new);
     }
 
+    /**
+     * Serve the cover of a {@link Book}. The cover is downloaded from OpenLibrary the first time
+     * and served from the local disk afterwards, with a strong ETag of its content, so clients
+     * can keep it for a long time and revalidate it without downloading it again.
+     *
+     * @param id       the id of the book
+     * @param size     the size of the cover: small, medium or large
+     * @param request  the request of the cover
+     * @param response the response where the cover is written
+     */
+
+    @GetMapping("/{id}/cover")
+    public void cover(@PathVariable Long id, @RequestParam(defaultValue = "small") String size,
+        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CoverSize coverSize = CoverSize.from(size);
+        Book book = bookRepository.findById(id)
+            .orElseThrow(BookNotFoundException::new);
+        CoverFile cover = coverImageService.cover(book, coverSize);
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+            CacheControl.maxAge(COVER_MAX_AGE_DAYS, TimeUnit.DAYS).cachePublic().getHeaderValue());
+
+        if (new ServletWebRequest(request, response).checkNotModified(cover.getEtag())) {
+            return;
+        }
+
+        coverImageService.send(cover, request, response);
+    }
+
+    /**
+     * Search {@link Book}s by the words in their title, subtitle, author or publisher.
+     *
+     * @param q     the words to search
+     * @param limit the maximum amount of books returned
+     * @return the books found, the most relevant first
+     */
+
+    @GetMapping("/search")
+    public List<Book> searchByText(@RequestParam String q,
+        @RequestParam(defaultValue = "10") int limit) {
+        return bookSearchService.search(q, Math.min(limit, MAX_SEARCH_RESULTS));
+    }
+
     /**
      * Search a {@link Book} in the database. If it does not exist, search in the OpenLibrary
-     * service and persist the book.
+     * service and persist the book. The request is handled asynchronously, so no request thread
+     * waits for the database or for OpenLibrary.
      *
      * @param isbn the ISBN of the book
      * @return the book found or an exception otherwise
      */
 
     @GetMapping("/search/{isbn}")
-    public ResponseEntity<Book> search(@PathVariable String isbn) {
-        return openLibraryService.search(isbn);
+    public CompletableFuture<ResponseEntity<Book>> search(@PathVariable String isbn) {
+        return openLibraryService.searchAsync(isbn);
+    }
+
+    /**
+     * Search many {@link Book}s by ISBN. The ones that are not in the database are looked up in
+     * the OpenLibrary service, with as few requests as possible, and persisted.
+     *
+     * @param isbns the ISBNs of the books
+     * @return the books found, in the order of the ISBNs; the unknown ISBNs are left out
+     */
+
+    @PostMapping("/search")
+    public List<Book> searchAll(@RequestBody List<String> isbns) {
+        if (isbns.size() > MAX_SEARCH_ISBNS) {
+            throw new TooManyIsbnsException();
+        }
+
+        return openLibraryService.searchAll(isbns);
     }
 
     /**
@@ -123,6 +389,20 @@ public class BookController {
         return bookRepository.save(book);
     }
 
+    /**
+     * Create many {@link Book}s at once. The rows are inserted in batches, and the rows that are
+     * not valid are reported without rejecting the others.
+     *
+     * @param request the request whose body is a JSON array of books or newline delimited JSON
+     * @return the amount of books received and created, and the errors of the rejected rows
+     */
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE,
+        "application/x-ndjson"})
+    public BulkResultDTO createAll(HttpServletRequest request) throws IOException {
+        return bookBulkService.ingest(request.getInputStream());
+    }
+
     /**
      * Delete a {@link Book}.
      *
@@ -149,8 +429,11 @@ public class BookController {
         if (book.getId() != id) {
             throw new BookIdMismatchException();
         }
-        bookRepository.findById(id)
+        Book stored = bookRepository.findById(id)
             .orElseThrow(BookNotFoundException::new);
+
+        // The body replaces the book, whatever version it was read at
+        book.setVersion(stored.getVersion());
         return bookRepository.save(book);
     }
 }
@@ -16,8 +16,12 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import wolox.training.dto.CountMode;
+import wolox.training.dto.SliceDTO;
+import wolox.training.dto.UserSummaryDTO;
 import wolox.training.exceptions.BookNotFoundException;
 import wolox.training.exceptions.UserIdMismatchException;
 import wolox.training.exceptions.UserNotFoundException;
@@ -25,6 +29,7 @@ import wolox.training.models.Book;
 import wolox.training.models.User;
 import wolox.training.repositories.BookRepository;
 import wolox.training.repositories.UserRepository;
+import wolox.training.services.RowCountEstimator;
 import wolox.training.services.UserService;
 
 /**
@@ -46,6 +51,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private RowCountEstimator rowCountEstimator;
+
     /**
      * Show the current logged {@link User}s information.
      *
@@ -62,15 +70,29 @@ public class UserController {
     }
 
     /**
-     * Find all {@link User}s.
+     * Find all {@link User}s. A slice is returned, with an estimated total if the count is
+     * {@code estimate}, or a page with the exact total if the count is {@code exact}. Only the
+     * columns of the users are read, without their books.
      *
+     * @param count    how to count the users: none, estimate or exact
      * @param pageable the parameters about pagination and sorting of the users
      * @return all the users that are persisted
      */
 
     @GetMapping
-    public Iterable findAll(Pageable pageable) {
-        return userRepository.findAll(pageable);
+    public Object findAll(@RequestParam(defaultValue = "none") String count,
+        Pageable pageable) {
+        CountMode countMode = CountMode.from(count);
+
+        if (countMode == CountMode.EXACT) {
+            return userRepository.findSummaries(pageable);
+        }
+
+        Long estimatedTotal = countMode == CountMode.ESTIMATE
+            ? rowCountEstimator.estimate("users", userRepository::count) : null;
+
+        return new SliceDTO<UserSummaryDTO>(userRepository.findSummarySlice(pageable),
+            estimatedTotal);
     }
 
     /**
@@ -101,7 +123,7 @@ public class UserController {
         @ApiResponse(code = 500, message = "Internal server error")
     })
     public User create(@RequestBody User user) {
-        return userRepository.save(user);
+        return userService.createUser(user);
     }
 
     /**
@@ -112,9 +134,10 @@ public class UserController {
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
-        userRepository.findById(id)
+        User user = userRepository.findById(id)
             .orElseThrow(UserNotFoundException::new);
-        userRepository.deleteById(id);
+
+        userService.deleteUser(user);
     }
 
     /**
@@ -156,10 +179,13 @@ public class UserController {
     }
 
     /**
-     * Add a {@link Book} to a collection of a {@link User}.
+     * Add a {@link Book} to a collection of a {@link User}. Only the row of the book is written,
+     * and the books of the user are loaded afterwards to be returned, from the collection cache
+     * when they are cached.
      *
      * @param user_id the id of the user
      * @param book_id the id of the book
+     * @return the user, with its books
      */
 
     @PostMapping("/{user_id}/books/{book_id}")
@@ -170,16 +196,19 @@ public class UserController {
         Book book = bookRepository.findById(book_id)
             .orElseThrow(BookNotFoundException::new);
 
-        user.addBook(book);
+        userService.addBook(user, book);
 
-        return userRepository.save(user);
+        return user;
     }
 
     /**
-     * Remove a {@link Book} from the collection of a {@link User}.
+     * Remove a {@link Book} from the collection of a {@link User}. Only the row of the book is
+     * deleted, and the books of the user are loaded afterwards to be returned. It is a 404 when
+     * the user does not have the book.
      *
      * @param user_id the id of the user
      * @param book_id the id of the book
+     * @return the user, with its books
      */
 
     @DeleteMapping("/{user_id}/books/{book_id}")
@@ -190,8 +219,8 @@ public class UserController {
         Book book = bookRepository.findById(book_id)
             .orElseThrow(BookNotFoundException::new);
 
-        user.deleteBook(book);
+        userService.deleteBook(user, book);
 
-        return userRepository.save(user);
+        return user;
     }
 }
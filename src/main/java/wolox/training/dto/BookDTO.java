@@ -0,0 +1,87 @@
+package wolox.training.dto;
+
+import wolox.training.models.Book;
+
+/**
+ * Read-only view of the columns of a {@link Book}, used by the list endpoints so that they do not
+ * load managed entities.
+ *
+ * @author M. G.
+ */
+
+public class BookDTO {
+
+    private long id;
+    private String genre;
+    private String author;
+    private String image;
+    private String title;
+    private String subtitle;
+    private String publisher;
+    private String year;
+    private Integer pages;
+    private String isbn;
+
+    public BookDTO() {
+    }
+
+    public BookDTO(long id, String genre, String author, String image, String title,
+        String subtitle, String publisher, String year, Integer pages, String isbn) {
+        this.id = id;
+        this.genre = genre;
+        this.author = author;
+        this.image = image;
+        this.title = title;
+        this.subtitle = subtitle;
+        this.publisher = publisher;
+        this.year = year;
+        this.pages = pages;
+        this.isbn = isbn;
+    }
+
+    public BookDTO(Book book) {
+        this(book.getId(), book.getGenre(), book.getAuthor(), book.getImage(), book.getTitle(),
+            book.getSubtitle(), book.getPublisher(), book.getYear(), book.getPages(),
+            book.getIsbn());
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getImage() {
+        return image;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSubtitle() {
+        return subtitle;
+    }
+
+    public String getPublisher() {
+        return publisher;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public Integer getPages() {
+        return pages;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+}
@@ -0,0 +1,31 @@
+package wolox.training.dto;
+
+public class BulkErrorDTO {
+
+    private int row;
+    private String message;
+
+    public BulkErrorDTO() {
+    }
+
+    public BulkErrorDTO(int row, String message) {
+        setRow(row);
+        setMessage(message);
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
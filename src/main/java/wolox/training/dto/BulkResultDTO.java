@@ -0,0 +1,42 @@
+package wolox.training.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkResultDTO {
+
+    private int received;
+    private int created;
+    private List<BulkErrorDTO> errors = new ArrayList<BulkErrorDTO>();
+
+    public BulkResultDTO() {
+    }
+
+    public void addError(int row, String message) {
+        errors.add(new BulkErrorDTO(row, message));
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public List<BulkErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BulkErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,36 @@
+package wolox.training.dto;
+
+import java.util.Locale;
+import wolox.training.exceptions.InvalidCountModeException;
+
+/**
+ * How the total amount of elements is computed for a listing.
+ *
+ * @author M. G.
+ */
+
+public enum CountMode {
+
+    /**
+     * No total, only whether there is a next page.
+     */
+    NONE,
+
+    /**
+     * An approximate total that does not scan the table.
+     */
+    ESTIMATE,
+
+    /**
+     * The exact total, computed with a count query.
+     */
+    EXACT;
+
+    public static CountMode from(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCountModeException();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package wolox.training.dto;
+
+import java.util.Locale;
+import wolox.training.exceptions.InvalidCoverSizeException;
+
+/**
+ * Sizes of the covers of OpenLibrary, which differ only in the suffix of their URLs.
+ *
+ * @author M. G.
+ */
+
+public enum CoverSize {
+
+    SMALL("-S."),
+    MEDIUM("-M."),
+    LARGE("-L.");
+
+    private final String suffix;
+
+    CoverSize(String suffix) {
+        this.suffix = suffix;
+    }
+
+    public static CoverSize from(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCoverSizeException();
+        }
+    }
+
+    /**
+     * Build the URL of this size from the URL of the small cover. When the URL does not follow
+     * the naming of OpenLibrary, the small cover is the only one known and it is used instead.
+     *
+     * @param smallUrl the URL of the small cover
+     * @return the URL of the cover of this size
+     */
+
+    public String url(String smallUrl) {
+        int at = smallUrl.lastIndexOf(SMALL.suffix);
+
+        if (at < 0) {
+            return smallUrl;
+        }
+
+        return smallUrl.substring(0, at) + suffix + smallUrl.substring(at + SMALL.suffix.length());
+    }
+}
@@ -0,0 +1,64 @@
+package wolox.training.dto;
+
+import java.util.Map;
+
+public class FacetsDTO {
+
+    private Map<String, Long> genre;
+    private Map<String, Long> publisher;
+    private Map<String, Long> year;
+    private long distinctAuthors;
+    private long distinctPublishers;
+
+    public FacetsDTO() {
+    }
+
+    public FacetsDTO(Map<String, Long> genre, Map<String, Long> publisher,
+        Map<String, Long> year, long distinctAuthors, long distinctPublishers) {
+        setGenre(genre);
+        setPublisher(publisher);
+        setYear(year);
+        setDistinctAuthors(distinctAuthors);
+        setDistinctPublishers(distinctPublishers);
+    }
+
+    public Map<String, Long> getGenre() {
+        return genre;
+    }
+
+    public void setGenre(Map<String, Long> genre) {
+        this.genre = genre;
+    }
+
+    public Map<String, Long> getPublisher() {
+        return publisher;
+    }
+
+    public void setPublisher(Map<String, Long> publisher) {
+        this.publisher = publisher;
+    }
+
+    public Map<String, Long> getYear() {
+        return year;
+    }
+
+    public void setYear(Map<String, Long> year) {
+        this.year = year;
+    }
+
+    public long getDistinctAuthors() {
+        return distinctAuthors;
+    }
+
+    public void setDistinctAuthors(long distinctAuthors) {
+        this.distinctAuthors = distinctAuthors;
+    }
+
+    public long getDistinctPublishers() {
+        return distinctPublishers;
+    }
+
+    public void setDistinctPublishers(long distinctPublishers) {
+        this.distinctPublishers = distinctPublishers;
+    }
+}
@@ -0,0 +1,53 @@
+package wolox.training.dto;
+
+import java.util.List;
+
+public class KeysetPageDTO<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String next;
+
+    public KeysetPageDTO() {
+    }
+
+    public KeysetPageDTO(List<T> content, int size, boolean hasNext, String next) {
+        setContent(content);
+        setSize(size);
+        setHasNext(hasNext);
+        setNext(next);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+}
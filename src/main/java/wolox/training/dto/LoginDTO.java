@@ -0,0 +1,31 @@
+package wolox.training.dto;
+
+public class LoginDTO {
+
+    private String username;
+    private String password;
+
+    public LoginDTO() {
+    }
+
+    public LoginDTO(String username, String password) {
+        setUsername(username);
+        setPassword(password);
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+}
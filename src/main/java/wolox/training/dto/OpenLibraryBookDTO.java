@@ -17,6 +17,8 @@ public class OpenLibraryBookDTO implements Serializable {
     private Integer numberOfPages;
     private List<OpenLibraryAuthorDTO> authors;
     private OpenLibraryCoverDTO cover;
+    private String joinedAuthors;
+    private String joinedPublishers;
 
     public OpenLibraryBookDTO() {
     }
@@ -68,6 +70,10 @@ public class OpenLibraryBookDTO implements Serializable {
     }
 
     public String getJoinedPublishers() {
+        if (joinedPublishers != null || getPublishers() == null) {
+            return joinedPublishers;
+        }
+
         ArrayList<String> names = new ArrayList<String>();
 
         for (OpenLibraryPublisherDTO elem : getPublishers()) {
@@ -77,6 +83,10 @@ public class OpenLibraryBookDTO implements Serializable {
         return String.join(",", names);
     }
 
+    public void setJoinedPublishers(String joinedPublishers) {
+        this.joinedPublishers = joinedPublishers;
+    }
+
     public String getPublishDate() {
         return publishDate;
     }
@@ -102,6 +112,10 @@ public class OpenLibraryBookDTO implements Serializable {
     }
 
     public String getJoinedAuthors() {
+        if (joinedAuthors != null || getAuthors() == null) {
+            return joinedAuthors;
+        }
+
         ArrayList<String> names = new ArrayList<String>();
 
         for (OpenLibraryAuthorDTO elem : getAuthors()) {
@@ -111,6 +125,10 @@ public class OpenLibraryBookDTO implements Serializable {
         return String.join(",", names);
     }
 
+    public void setJoinedAuthors(String joinedAuthors) {
+        this.joinedAuthors = joinedAuthors;
+    }
+
     public OpenLibraryCoverDTO getCover() {
         return cover;
     }
@@ -0,0 +1,21 @@
+package wolox.training.dto;
+
+public class RefreshDTO {
+
+    private String refreshToken;
+
+    public RefreshDTO() {
+    }
+
+    public RefreshDTO(String refreshToken) {
+        setRefreshToken(refreshToken);
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
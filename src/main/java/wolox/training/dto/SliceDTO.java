@@ -0,0 +1,82 @@
+package wolox.training.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import java.util.List;
+import org.springframework.data.domain.Slice;
+
+public class SliceDTO<T> {
+
+    private List<T> content;
+    private int number;
+    private int size;
+    private boolean hasNext;
+    @JsonInclude(Include.NON_NULL)
+    private Long estimatedTotal;
+    @JsonInclude(Include.NON_NULL)
+    private Boolean totalCapped;
+
+    public SliceDTO() {
+    }
+
+    public SliceDTO(Slice<T> slice, Long estimatedTotal) {
+        this(slice, estimatedTotal, null);
+    }
+
+    public SliceDTO(Slice<T> slice, Long estimatedTotal, Boolean totalCapped) {
+        setContent(slice.getContent());
+        setNumber(slice.getNumber());
+        setSize(slice.getSize());
+        setHasNext(slice.hasNext());
+        setEstimatedTotal(estimatedTotal);
+        setTotalCapped(totalCapped);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public void setNumber(int number) {
+        this.number = number;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public Long getEstimatedTotal() {
+        return estimatedTotal;
+    }
+
+    public void setEstimatedTotal(Long estimatedTotal) {
+        this.estimatedTotal = estimatedTotal;
+    }
+
+    public Boolean getTotalCapped() {
+        return totalCapped;
+    }
+
+    public void setTotalCapped(Boolean totalCapped) {
+        this.totalCapped = totalCapped;
+    }
+}
@@ -0,0 +1,42 @@
+package wolox.training.dto;
+
+/**
+ * Tokens issued on a login or a refresh. The access token authenticates the requests as a bearer
+ * token until it expires, and the refresh token is exchanged for new tokens.
+ *
+ * @author M. G.
+ */
+
+public class TokenDTO {
+
+    private static final String BEARER = "Bearer";
+
+    private String accessToken;
+    private String refreshToken;
+    private long expiresIn;
+
+    public TokenDTO() {
+    }
+
+    public TokenDTO(String accessToken, String refreshToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public String getTokenType() {
+        return BEARER;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+}
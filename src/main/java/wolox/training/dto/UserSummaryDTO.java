@@ -0,0 +1,44 @@
+package wolox.training.dto;
+
+import java.time.LocalDate;
+import wolox.training.models.User;
+
+/**
+ * Read-only view of the columns of a {@link User}, without the books of the user.
+ *
+ * @author M. G.
+ */
+
+public class UserSummaryDTO {
+
+    private long id;
+    private String username;
+    private String name;
+    private LocalDate birthDate;
+
+    public UserSummaryDTO() {
+    }
+
+    public UserSummaryDTO(long id, String username, String name, LocalDate birthDate) {
+        this.id = id;
+        this.username = username;
+        this.name = name;
+        this.birthDate = birthDate;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalDate getBirthDate() {
+        return birthDate;
+    }
+}
@@ -0,0 +1,61 @@
+package wolox.training.events;
+
+import java.util.Map;
+import wolox.training.models.Book;
+
+/**
+ * Event published when a {@link Book} is inserted, updated or deleted in the database. Updates
+ * carry the values that the attributes had before, when Hibernate knows them.
+ *
+ * @author M. G.
+ */
+
+public class BookEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final Book book;
+    private final Map<String, Object> previousState;
+
+    public BookEvent(Type type, Book book) {
+        this(type, book, null);
+    }
+
+    public BookEvent(Type type, Book book, Map<String, Object> previousState) {
+        this.type = type;
+        this.book = book;
+        this.previousState = previousState;
+    }
+
+    /**
+     * Whether the values of the attributes before an update are known.
+     *
+     * @return true if the previous state can be read
+     */
+
+    public boolean hasPreviousState() {
+        return previousState != null;
+    }
+
+    /**
+     * Get the value that an attribute had before an update.
+     *
+     * @param attribute the name of the attribute of the book
+     * @return the previous value, or null if it was null or it is not known
+     */
+
+    public Object getPrevious(String attribute) {
+        return previousState == null ? null : previousState.get(attribute);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+}
@@ -0,0 +1,93 @@
+package wolox.training.events;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import wolox.training.models.Book;
+
+/**
+ * Hibernate listener that publishes a {@link BookEvent} for every write of a {@link Book}, no
+ * matter which repository or service performed it. Listeners that must only see committed data
+ * should use {@code @TransactionalEventListener}.
+ *
+ * @author M. G.
+ */
+
+@Component
+public class BookEventPublisher implements PostInsertEventListener, PostUpdateEventListener,
+    PostDeleteEventListener {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(BookEvent.Type.CREATED, event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Book)) {
+            return;
+        }
+
+        Map<String, Object> previousState = null;
+
+        if (event.getOldState() != null) {
+            String[] names = event.getPersister().getPropertyNames();
+            previousState = new HashMap<String, Object>();
+
+            for (int i = 0; i < names.length; i++) {
+                previousState.put(names[i], event.getOldState()[i]);
+            }
+        }
+
+        applicationEventPublisher.publishEvent(new BookEvent(BookEvent.Type.UPDATED,
+            (Book) event.getEntity(), previousState));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(BookEvent.Type.DELETED, event.getEntity());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void publish(BookEvent.Type type, Object entity) {
+        if (entity instanceof Book) {
+            applicationEventPublisher.publishEvent(new BookEvent(type, (Book) entity));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import wolox.training.models.Book;
+
+/**
+ * Exception raised when a {@link Book} is removed from an User that did not have it.
+ *
+ * @author M. G.
+ */
+
+@ResponseStatus(code = HttpStatus.NOT_FOUND, reason = "Book Not Owned")
+public class BookNotOwnedException extends RuntimeException {
+
+    public BookNotOwnedException() {
+        super();
+    }
+}
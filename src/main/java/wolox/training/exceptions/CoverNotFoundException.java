@@ -0,0 +1,18 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception when a book has no cover that can be downloaded.
+ *
+ * @author M. G.
+ */
+
+@ResponseStatus(code = HttpStatus.NOT_FOUND, reason = "Cover Not Found")
+public class CoverNotFoundException extends RuntimeException {
+
+    public CoverNotFoundException() {
+        super();
+    }
+}
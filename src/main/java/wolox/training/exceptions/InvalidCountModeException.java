@@ -0,0 +1,18 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception when the count mode requested for a listing does not exist.
+ *
+ * @author M. G.
+ */
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST, reason = "Invalid Count Mode")
+public class InvalidCountModeException extends RuntimeException {
+
+    public InvalidCountModeException() {
+        super();
+    }
+}
@@ -0,0 +1,18 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception when the cover size requested does not exist.
+ *
+ * @author M. G.
+ */
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST, reason = "Invalid Cover Size")
+public class InvalidCoverSizeException extends RuntimeException {
+
+    public InvalidCoverSizeException() {
+        super();
+    }
+}
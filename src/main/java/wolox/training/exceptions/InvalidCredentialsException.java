@@ -0,0 +1,18 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception when a login or a refresh token is not valid.
+ *
+ * @author M. G.
+ */
+
+@ResponseStatus(code = HttpStatus.UNAUTHORIZED, reason = "Invalid Credentials")
+public class InvalidCredentialsException extends RuntimeException {
+
+    public InvalidCredentialsException() {
+        super();
+    }
+}
@@ -0,0 +1,18 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception when the format requested for an export does not exist.
+ *
+ * @author M. G.
+ */
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST, reason = "Invalid Export Format")
+public class InvalidExportFormatException extends RuntimeException {
+
+    public InvalidExportFormatException() {
+        super();
+    }
+}
@@ -0,0 +1,19 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception when the sort requested cannot be used for keyset pagination.
+ *
+ * @author M. G.
+ */
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST,
+    reason = "Sort Not Supported For Keyset Pagination")
+public class KeysetSortNotSupportedException extends RuntimeException {
+
+    public KeysetSortNotSupportedException() {
+        super();
+    }
+}
@@ -0,0 +1,18 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception when OpenLibrary fails, or when it is not called to protect it or the application.
+ *
+ * @author M. G.
+ */
+
+@ResponseStatus(code = HttpStatus.SERVICE_UNAVAILABLE, reason = "OpenLibrary Unavailable")
+public class OpenLibraryUnavailableException extends RuntimeException {
+
+    public OpenLibraryUnavailableException() {
+        super();
+    }
+}
@@ -0,0 +1,18 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception when too many passwords are waiting to be hashed.
+ *
+ * @author M. G.
+ */
+
+@ResponseStatus(code = HttpStatus.SERVICE_UNAVAILABLE, reason = "Password Hashing Busy")
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super();
+    }
+}
@@ -0,0 +1,18 @@
+package wolox.training.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception when a search asks for more books than allowed at once.
+ *
+ * @author M. G.
+ */
+
+@ResponseStatus(code = HttpStatus.BAD_REQUEST, reason = "Too Many ISBNs")
+public class TooManyIsbnsException extends RuntimeException {
+
+    public TooManyIsbnsException() {
+        super();
+    }
+}
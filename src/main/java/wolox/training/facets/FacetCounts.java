@@ -0,0 +1,60 @@
+package wolox.training.facets;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Amount of documents per value of an attribute, kept up to date as documents change. Values
+ * whose count drops to zero are removed.
+ *
+ * @author M. G.
+ */
+
+public class FacetCounts {
+
+    private final Map<String, Long> counts = new ConcurrentHashMap<String, Long>();
+
+    public void increment(String value) {
+        add(value, 1);
+    }
+
+    public void decrement(String value) {
+        add(value, -1);
+    }
+
+    public void clear() {
+        counts.clear();
+    }
+
+    /**
+     * Get the values with the most documents.
+     *
+     * @param limit the maximum amount of values returned
+     * @return the counts per value, the highest first
+     */
+
+    public Map<String, Long> top(int limit) {
+        Map<String, Long> top = new LinkedHashMap<String, Long>();
+
+        counts.entrySet().stream()
+            .sorted(Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Entry.comparingByKey()))
+            .limit(limit)
+            .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+
+        return top;
+    }
+
+    private void add(String value, long delta) {
+        if (value == null) {
+            return;
+        }
+
+        counts.compute(value, (key, count) -> {
+            long updated = (count == null ? 0 : count) + delta;
+            return updated > 0 ? updated : null;
+        });
+    }
+}
@@ -1,21 +1,45 @@
 package wolox.training.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
 import com.google.common.base.Preconditions;
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.ManyToMany;
+import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Parameter;
 
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @GenericGenerator(name = "book_seq",
+        strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+        parameters = {
+            @Parameter(name = "sequence_name", value = "book_seq"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+        })
     private long id;
 
     @Column
@@ -43,11 +67,23 @@ public class Book {
     private Integer pages;
 
     @NotNull
+    @NaturalId(mutable = true)
     private String isbn;
 
     @ManyToMany(mappedBy = "books")
     private List<User> users;
 
+    @JsonProperty(access = Access.READ_ONLY)
+    private Instant refreshedAt;
+
+    /**
+     * Incremented on every update, so the listeners of the {@link wolox.training.events.BookEvent}s
+     * can tell whether a row they read is older than an event.
+     */
+    @Version
+    @JsonIgnore
+    private long version;
+
     public Book() {
     }
 
@@ -78,21 +114,30 @@ public class Book {
         setIsbn(isbn);
     }
 
+    /**
+     * Stored books are equal when they have the same id, which never changes, so a book stays in
+     * the sets of books of the users when its isbn is edited. Books that are not stored yet have
+     * no id and are equal when they have the same isbn.
+     */
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
             return true;
         }
-        if (o == null || getClass() != o.getClass()) {
+        if (!(o instanceof Book)) {
             return false;
         }
         Book book = (Book) o;
-        return isbn.equals(book.isbn);
+        if (id != 0 || book.getId() != 0) {
+            return id == book.getId();
+        }
+        return isbn.equals(book.getIsbn());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(isbn);
+        return id != 0 ? Long.hashCode(id) : Objects.hash(isbn);
     }
 
     public long getId() {
@@ -188,4 +233,20 @@ public class Book {
 
         this.isbn = isbn;
     }
+
+    public Instant getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    public void setRefreshedAt(Instant refreshedAt) {
+        this.refreshedAt = refreshedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -6,20 +6,29 @@ import com.google.common.base.Preconditions;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Parameter;
 import wolox.training.exceptions.BookAlreadyOwnedException;
-import wolox.training.services.PasswordEncoderService;
 
 /**
  * Model for users
@@ -29,15 +38,26 @@ import wolox.training.services.PasswordEncoderService;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @ApiModel(description = "Users for the Book Management System")
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @GenericGenerator(name = "users_seq",
+        strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+        parameters = {
+            @Parameter(name = "sequence_name", value = "users_seq"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+        })
     private long id;
 
     @ApiModelProperty(notes = "The nickname that will use a user to identify itself")
     @NotNull
+    @NaturalId(mutable = true)
     private String username;
 
     @NotNull
@@ -51,13 +71,16 @@ public class User {
     private LocalDate birthDate;
 
     @ManyToMany(cascade = {CascadeType.REFRESH, CascadeType.MERGE})
-    private List<Book> books = new ArrayList<Book>();
+    @JoinTable(name = "users_books", joinColumns = @JoinColumn(name = "users_id"),
+        inverseJoinColumns = @JoinColumn(name = "books_id"))
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private Set<Book> books = new HashSet<Book>();
 
     public User() {
     }
 
     public User(long id, String username, String name, LocalDate birthDate, String password,
-        List<Book> books) {
+        Collection<Book> books) {
         this.id = id;
         setUsername(username);
         setName(name);
@@ -121,7 +144,7 @@ public class User {
     public void setPassword(String password) {
         Preconditions.checkArgument(password != null && !password.isEmpty());
 
-        this.password = PasswordEncoderService.encode(password);
+        this.password = password;
     }
 
     public LocalDate getBirthDate() {
@@ -134,12 +157,12 @@ public class User {
         this.birthDate = birthDate;
     }
 
-    public List<Book> getBooks() {
-        return (List<Book>) Collections.unmodifiableList(books);
+    public Set<Book> getBooks() {
+        return Collections.unmodifiableSet(books);
     }
 
-    public void setBooks(List<Book> books) {
-        this.books = Preconditions.checkNotNull(books);
+    public void setBooks(Collection<Book> books) {
+        this.books = new HashSet<Book>(Preconditions.checkNotNull(books));
     }
 
     /**
@@ -149,11 +172,9 @@ public class User {
      */
 
     public void addBook(Book book) {
-        if (books.contains(book)) {
+        if (!books.add(book)) {
             throw new BookAlreadyOwnedException();
         }
-
-        this.books.add(book);
     }
 
     /**
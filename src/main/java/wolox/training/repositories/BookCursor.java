@@ -0,0 +1,163 @@
+package wolox.training.repositories;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+import wolox.training.exceptions.InvalidCursorException;
+import wolox.training.exceptions.KeysetSortNotSupportedException;
+import wolox.training.dto.BookDTO;
+import wolox.training.models.Book;
+
+/**
+ * Position in a keyset (seek) traversal of {@link Book}s. It holds the sort property, its
+ * direction and the sort key plus id of the last book returned, and it is exchanged with the
+ * clients as an opaque token.
+ *
+ * @author M. G.
+ */
+
+public class BookCursor {
+
+    /**
+     * Properties that have an index together with the id, so the seek predicate never scans.
+     */
+    public static final List<String> SORTABLE_PROPERTIES = Arrays
+        .asList("id", "title", "author", "publisher", "year", "isbn");
+
+    private static final String SEPARATOR = "\n";
+
+    private final String property;
+    private final Direction direction;
+    private final String key;
+    private final Long lastId;
+
+    private BookCursor(String property, Direction direction, String key, Long lastId) {
+        this.property = property;
+        this.direction = direction;
+        this.key = key;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Create a cursor positioned before the first {@link Book} for the given sort.
+     *
+     * @param sort the sort requested, at most one property besides the id
+     * @return the cursor for the first page
+     */
+
+    public static BookCursor first(Sort sort) {
+        Iterator<Order> orders = sort.iterator();
+
+        if (!orders.hasNext()) {
+            return new BookCursor("id", Direction.ASC, null, null);
+        }
+
+        Order order = orders.next();
+
+        if (orders.hasNext() || !SORTABLE_PROPERTIES.contains(order.getProperty())) {
+            throw new KeysetSortNotSupportedException();
+        }
+
+        return new BookCursor(order.getProperty(), order.getDirection(), null, null);
+    }
+
+    /**
+     * Decode a token previously produced by {@link #encode()}.
+     *
+     * @param token the opaque token sent by the client
+     * @return the cursor that the token represents
+     */
+
+    public static BookCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token),
+                StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR, 4);
+
+            if (parts.length != 4 || !SORTABLE_PROPERTIES.contains(parts[0])) {
+                throw new InvalidCursorException();
+            }
+
+            return new BookCursor(parts[0], Direction.fromString(parts[1]), parts[3],
+                Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    /**
+     * Create the cursor that continues the traversal after a {@link Book}.
+     *
+     * @param last the last book returned to the client
+     * @return the cursor positioned after that book
+     */
+
+    public BookCursor next(Book last) {
+        return next(new BookDTO(last));
+    }
+
+    /**
+     * Create the cursor that continues the traversal after the columns of a {@link Book}.
+     *
+     * @param last the last book returned to the client
+     * @return the cursor positioned after that book
+     */
+
+    public BookCursor next(BookDTO last) {
+        return new BookCursor(property, direction, keyOf(last), last.getId());
+    }
+
+    public String encode() {
+        String raw = property + SEPARATOR + direction.name() + SEPARATOR + lastId + SEPARATOR
+            + key;
+
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    public boolean isById() {
+        return "id".equals(property);
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    private String keyOf(BookDTO book) {
+        switch (property) {
+            case "title":
+                return book.getTitle();
+            case "author":
+                return book.getAuthor();
+            case "publisher":
+                return book.getPublisher();
+            case "year":
+                return book.getYear();
+            case "isbn":
+                return book.getIsbn();
+            default:
+                return String.valueOf(book.getId());
+        }
+    }
+}
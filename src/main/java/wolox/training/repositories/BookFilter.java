@@ -0,0 +1,148 @@
+package wolox.training.repositories;
+
+import java.util.Objects;
+import java.util.Set;
+import wolox.training.models.Book;
+
+/**
+ * Criteria used to filter {@link Book}s. A null field means that the criteria is not applied.
+ * The genre and titleContains criteria match substrings, and ids restricts the books to a set
+ * of candidates.
+ *
+ * @author M. G.
+ */
+
+public class BookFilter {
+
+    private final Long id;
+    private final String genre;
+    private final String author;
+    private final String image;
+    private final String title;
+    private final String subtitle;
+    private final String publisher;
+    private final String year;
+    private final Integer pages;
+    private final String isbn;
+    private final String titleContains;
+    private final Set<Long> ids;
+
+    public BookFilter(Long id, String genre, String author, String image, String title,
+        String subtitle, String publisher, String year, Integer pages, String isbn) {
+        this(id, genre, author, image, title, subtitle, publisher, year, pages, isbn, null, null);
+    }
+
+    public BookFilter(Long id, String genre, String author, String image, String title,
+        String subtitle, String publisher, String year, Integer pages, String isbn,
+        String titleContains, Set<Long> ids) {
+        this.id = id;
+        this.genre = genre;
+        this.author = author;
+        this.image = image;
+        this.title = title;
+        this.subtitle = subtitle;
+        this.publisher = publisher;
+        this.year = year;
+        this.pages = pages;
+        this.isbn = isbn;
+        this.titleContains = titleContains;
+        this.ids = ids;
+    }
+
+    /**
+     * Create a copy of this filter where the substring criteria are replaced by the ids of the
+     * books that are already known to match them.
+     *
+     * @param ids the ids of the books that match the substring criteria
+     * @return the filter restricted to those ids
+     */
+
+    public BookFilter withCandidates(Set<Long> ids) {
+        return new BookFilter(id, null, author, image, title, subtitle, publisher, year, pages,
+            isbn, null, ids);
+    }
+
+    /**
+     * Whether the filter has no criteria, so it matches all the books.
+     *
+     * @return true if every criteria is null or empty
+     */
+
+    public boolean isEmpty() {
+        return id == null && (genre == null || genre.isEmpty()) && author == null
+            && image == null && title == null && subtitle == null && publisher == null
+            && year == null && pages == null && isbn == null
+            && (titleContains == null || titleContains.isEmpty()) && ids == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BookFilter that = (BookFilter) o;
+        return Objects.equals(id, that.id) && Objects.equals(genre, that.genre)
+            && Objects.equals(author, that.author) && Objects.equals(image, that.image)
+            && Objects.equals(title, that.title) && Objects.equals(subtitle, that.subtitle)
+            && Objects.equals(publisher, that.publisher) && Objects.equals(year, that.year)
+            && Objects.equals(pages, that.pages) && Objects.equals(isbn, that.isbn)
+            && Objects.equals(titleContains, that.titleContains) && Objects.equals(ids, that.ids);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, genre, author, image, title, subtitle, publisher, year, pages,
+            isbn, titleContains, ids);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getImage() {
+        return image;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSubtitle() {
+        return subtitle;
+    }
+
+    public String getPublisher() {
+        return publisher;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public Integer getPages() {
+        return pages;
+    }
+
+    public String getIsbn() {
+        return isbn;
+    }
+
+    public String getTitleContains() {
+        return titleContains;
+    }
+
+    public Set<Long> getIds() {
+        return ids;
+    }
+}
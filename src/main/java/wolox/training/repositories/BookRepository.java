@@ -1,11 +1,19 @@
 package wolox.training.repositories;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import javax.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
-import org.springframework.data.repository.query.Param;
+import wolox.training.dto.BookDTO;
 import wolox.training.models.Book;
 
 /**
@@ -14,7 +22,8 @@ import wolox.training.models.Book;
  * @author M. G.
  */
 
-public interface BookRepository extends PagingAndSortingRepository<Book, Long> {
+public interface BookRepository extends PagingAndSortingRepository<Book, Long>,
+    JpaSpecificationExecutor<Book>, BookRepositoryCustom {
 
     /**
      * Find a book by its author.
@@ -25,12 +34,30 @@ public interface BookRepository extends PagingAndSortingRepository<Book, Long> {
     Optional<Book> findByAuthor(String author);
 
     /**
-     * Find a book by its isbn.
+     * Find the books of many isbns. The result is kept in the query cache of Hibernate until a
+     * book is written.
      *
-     * @param isbn the isbn of the book
-     * @return the book if it exists, and otherwise Optional.empty() object.
+     * @param isbns the isbns of the books
+     * @return the books that exist, in no particular order
      */
-    Optional<Book> findByIsbn(String isbn);
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Book> findByIsbnIn(Collection<String> isbns);
+
+    /**
+     * Find the books that were never refreshed from OpenLibrary or were refreshed before a time,
+     * in pages ordered by id. The books are read as projections, so no entity is loaded before
+     * the transaction that updates them.
+     *
+     * @param after       the id after which the books are read
+     * @param staleBefore the time before which a refresh is stale
+     * @param pageable    the amount of books read, the sort is ignored
+     * @return the stale books with an id greater than after
+     */
+
+    @Query("SELECT new wolox.training.dto.BookDTO(b.id, b.genre, b.author, b.image, b.title,"
+        + " b.subtitle, b.publisher, b.year, b.pages, b.isbn) FROM Book b WHERE b.id > :after"
+        + " AND (b.refreshedAt IS NULL OR b.refreshedAt < :staleBefore) ORDER BY b.id")
+    List<BookDTO> findStaleAfter(long after, Instant staleBefore, Pageable pageable);
 
     /**
      * Find all books that matches a specific publisher, genre and year.
@@ -42,43 +69,45 @@ public interface BookRepository extends PagingAndSortingRepository<Book, Long> {
      * @return the book if it exists, and otherwise Optional.empty() object.
      */
 
-    @Query("SELECT u FROM Book u WHERE (:publisher IS NULL OR u.publisher = :publisher) AND"
-        + " (:genre IS NULL OR u.genre = :genre) AND (:year IS NULL OR u.year = :year)")
-    Page<Book> findByPublisherAndGenreAndYear(@Param("publisher") String publisher,
-        @Param("genre") String genre, @Param("year") String year, Pageable pageable);
+    default Page<Book> findByPublisherAndGenreAndYear(String publisher, String genre,
+        String year, Pageable pageable) {
+        return findAll(Specification.where(BookSpecifications.equal("publisher", publisher))
+            .and(BookSpecifications.equal("genre", genre))
+            .and(BookSpecifications.equal("year", year)), pageable);
+    }
 
     /**
      * Find all {@link Book}s that matches a specific criteria.
      *
-     * @param id        the id of the books
-     * @param genre     the genre of the books
-     * @param author    the author of the books
-     * @param image     the image of the books
-     * @param title     the title of the books
-     * @param subtitle  the subtitle of the books
-     * @param publisher the publisher of the books
-     * @param year      the year of the books
-     * @param pages     the pages of the books
-     * @param isbn      the isbn of the books
-     * @param pageable  the parameters about pagination and sorting of the books
-     * @return a list of the books that are persisted and match the criteria
+     * @param filter   the criteria that the books must match
+     * @param pageable the parameters about pagination and sorting of the books
+     * @return a page of the books that are persisted and match the criteria
      */
 
-    @Query(
-        "SELECT u FROM Book u WHERE (:id IS NULL OR u.id = :id) AND "
-            + "(u.genre LIKE %:genre%) AND "
-            + "(:author IS NULL OR u.author = :author) AND "
-            + "(:image IS NULL OR u.image = :image) AND "
-            + "(:title IS NULL OR u.title = :title) AND "
-            + "(:subtitle IS NULL OR u.subtitle = :subtitle) AND "
-            + "(:publisher IS NULL OR u.publisher = :publisher) AND "
-            + "(:year IS NULL OR u.year = :year) AND "
-            + "(:pages IS NULL OR u.pages = :pages) AND"
-            + " (:isbn IS NULL OR u.isbn = :isbn)")
-    Page<Book> findByAllFields(@Param("id") Long id,
-        @Param("genre") String genre,
-        @Param("author") String author, @Param("image") String image,
-        @Param("title") String title, @Param("subtitle") String subtitle,
-        @Param("publisher") String publisher, @Param("year") String year,
-        @Param("pages") Integer pages, @Param("isbn") String isbn, Pageable pageable);
+    default Page<Book> findByFilter(BookFilter filter, Pageable pageable) {
+        return findAll(BookSpecifications.matching(filter), pageable);
+    }
+
+    /**
+     * Go through all the {@link Book}s in batches, ordered by id. The books are not put in the
+     * second-level cache, so a scan of the whole catalog does not evict the books that are read
+     * often.
+     *
+     * @param action the action to perform on every book
+     */
+
+    default void scanAll(Consumer<Book> action) {
+        int batchSize = 1000;
+        long after = Long.MIN_VALUE;
+        List<Book> batch;
+
+        do {
+            batch = findBatchAfter(after, batchSize);
+
+            for (Book book : batch) {
+                action.accept(book);
+                after = book.getId();
+            }
+        } while (batch.size() == batchSize);
+    }
 }
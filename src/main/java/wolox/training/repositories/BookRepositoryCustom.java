@@ -0,0 +1,129 @@
+package wolox.training.repositories;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import wolox.training.dto.BookDTO;
+import wolox.training.models.Book;
+
+/**
+ * Queries of {@link BookRepository} that cannot be derived by Spring Data.
+ *
+ * @author M. G.
+ */
+
+public interface BookRepositoryCustom {
+
+    /**
+     * Find a {@link Book} by its isbn. The isbn is the natural id of the book, so the lookup goes
+     * through the second-level cache of Hibernate and a cached book is found without a query.
+     *
+     * @param isbn the isbn of the book
+     * @return the book if it exists, and otherwise Optional.empty() object.
+     */
+    Optional<Book> findByIsbn(String isbn);
+
+    /**
+     * Find {@link Book}s by their ids, in the same order. The books are loaded by id, so the
+     * cached ones come from the second-level cache of Hibernate, and only the others are queried.
+     *
+     * @param ids the ids of the books
+     * @return the books that exist, in the order of their ids
+     */
+    List<Book> findAllByIdInOrder(List<Long> ids);
+
+    /**
+     * Find the {@link Book}s that match a filter and come after a cursor. The query seeks on the
+     * sort key and the id instead of using an offset, and it does not count the matching books.
+     *
+     * @param filter the criteria that the books must match
+     * @param cursor the position after which the books are returned
+     * @param size   the maximum amount of books returned
+     * @return a slice of the books that match the criteria, ordered by the cursor sort
+     */
+    Slice<Book> findByFilterAfter(BookFilter filter, BookCursor cursor, int size);
+
+    /**
+     * Find the {@link Book}s that match a filter and come after a cursor, reading them into a
+     * projection.
+     *
+     * @param filter the criteria that the books must match
+     * @param cursor the position after which the books are returned
+     * @param size   the maximum amount of books returned
+     * @param type   {@link Book} for managed entities, or {@link BookDTO} for their columns only
+     * @param <T>    the type of the rows returned
+     * @return a slice of the books that match the criteria, ordered by the cursor sort
+     */
+    <T> Slice<T> findByFilterAfter(BookFilter filter, BookCursor cursor, int size,
+        Class<T> type);
+
+    /**
+     * Find a page of the {@link Book}s that match a filter without counting all of them. One more
+     * book than the page size is fetched to know whether there is a next page.
+     *
+     * @param filter   the criteria that the books must match
+     * @param pageable the parameters about pagination and sorting of the books
+     * @param type     {@link Book} for managed entities, or {@link BookDTO} for their columns only
+     * @param <T>      the type of the rows returned
+     * @return a slice of the books that match the criteria
+     */
+    <T> Slice<T> findSliceByFilter(BookFilter filter, Pageable pageable, Class<T> type);
+
+    /**
+     * Find a page of the {@link Book}s that match a filter, counting all of them.
+     *
+     * @param filter   the criteria that the books must match
+     * @param pageable the parameters about pagination and sorting of the books
+     * @param type     {@link Book} for managed entities, or {@link BookDTO} for their columns only
+     * @param <T>      the type of the rows returned
+     * @return a page of the books that match the criteria
+     */
+    <T> Page<T> findPageByFilter(BookFilter filter, Pageable pageable, Class<T> type);
+
+    /**
+     * Count the {@link Book}s that match a filter, stopping at a limit so that a broad filter
+     * does not read the whole table. At most one id is read, plus a count of the books when
+     * fewer than the limit match.
+     *
+     * @param filter the criteria that the books must match
+     * @param limit  the maximum amount counted
+     * @return the amount of books that match the criteria, at most the limit
+     */
+    long countByFilterUpTo(BookFilter filter, int limit);
+
+    /**
+     * Find the {@link Book}s that come after an id, ordered by id. The books are neither read from
+     * nor put in the second-level cache, so reading the whole catalog in batches does not evict the
+     * books that are read often.
+     *
+     * @param afterId the id after which the books are returned
+     * @param size    the maximum amount of books returned
+     * @return the books after the id
+     */
+    List<Book> findBatchAfter(long afterId, int size);
+
+    /**
+     * Stream the {@link Book}s that match a filter, ordered by id. The rows are read through a
+     * server-side cursor, so it must be consumed inside a transaction and closed afterwards. The
+     * books are not put in the second-level cache.
+     *
+     * @param filter    the criteria that the books must match
+     * @param fetchSize the amount of rows fetched from the cursor at once
+     * @return the books that match the criteria
+     */
+    Stream<Book> streamByFilter(BookFilter filter, int fetchSize);
+
+    /**
+     * Count the {@link Book}s that match a filter per value of an attribute.
+     *
+     * @param filter    the criteria that the books must match
+     * @param attribute the name of the attribute of the book whose values are counted
+     * @param limit     the maximum amount of values returned
+     * @return the amount of books per value, the highest first
+     */
+    Map<String, Long> countByFilterGroupBy(BookFilter filter, String attribute, int limit);
+}
@@ -0,0 +1,306 @@
+package wolox.training.repositories;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.dto.BookDTO;
+import wolox.training.models.Book;
+
+/**
+ * Implementation of {@link BookRepositoryCustom}. The queries run in read-only transactions
+ * unless the caller already started one.
+ *
+ * @author M. G.
+ */
+
+@Transactional(readOnly = true)
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Book> findByIsbn(String isbn) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Book.class)
+            .loadOptional(isbn);
+    }
+
+    @Override
+    public List<Book> findAllByIdInOrder(List<Long> ids) {
+        List<Book> books = new ArrayList<Book>(entityManager.unwrap(Session.class)
+            .byMultipleIds(Book.class)
+            .enableSessionCheck(true)
+            .enableOrderedReturn(true)
+            .with(CacheMode.NORMAL)
+            .multiLoad(ids));
+
+        // The books that do not exist are returned as nulls
+        books.removeIf(Objects::isNull);
+
+        return books;
+    }
+
+    @Override
+    public Slice<Book> findByFilterAfter(BookFilter filter, BookCursor cursor, int size) {
+        return findByFilterAfter(filter, cursor, size, Book.class);
+    }
+
+    @Override
+    public <T> Slice<T> findByFilterAfter(BookFilter filter, BookCursor cursor, int size,
+        Class<T> type) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(type);
+        Root<Book> book = query.from(Book.class);
+
+        List<Predicate> predicates = new ArrayList<Predicate>();
+        Predicate filterPredicate = BookSpecifications.matching(filter)
+            .toPredicate(book, query, builder);
+
+        if (filterPredicate != null) {
+            predicates.add(filterPredicate);
+        }
+
+        if (!cursor.isFirst()) {
+            predicates.add(seekPredicate(cursor, book, builder));
+        }
+
+        Path<Long> id = book.get("id");
+        boolean ascending = cursor.getDirection() == Direction.ASC;
+
+        if (cursor.isById()) {
+            query.orderBy(ascending ? builder.asc(id) : builder.desc(id));
+        } else {
+            Path<String> key = book.get(cursor.getProperty());
+            query.orderBy(ascending ? builder.asc(key) : builder.desc(key),
+                ascending ? builder.asc(id) : builder.desc(id));
+        }
+
+        query.select(selection(type, book, builder))
+            .where(predicates.toArray(new Predicate[0]));
+
+        List<T> rows = entityManager.createQuery(query)
+            .setMaxResults(size + 1)
+            .getResultList();
+
+        boolean hasNext = rows.size() > size;
+
+        return new SliceImpl<T>(hasNext ? rows.subList(0, size) : rows, PageRequest.of(0, size),
+            hasNext);
+    }
+
+    @Override
+    public <T> Slice<T> findSliceByFilter(BookFilter filter, Pageable pageable, Class<T> type) {
+        TypedQuery<T> query = pageQuery(filter, pageable, type);
+
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<T>(query.getResultList());
+        }
+
+        List<T> rows = query.setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize() + 1)
+            .getResultList();
+
+        boolean hasNext = rows.size() > pageable.getPageSize();
+
+        return new SliceImpl<T>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows,
+            pageable, hasNext);
+    }
+
+    @Override
+    public <T> Page<T> findPageByFilter(BookFilter filter, Pageable pageable, Class<T> type) {
+        TypedQuery<T> query = pageQuery(filter, pageable, type);
+
+        if (pageable.isUnpaged()) {
+            return new PageImpl<T>(query.getResultList());
+        }
+
+        List<T> rows = query.setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultList();
+
+        return PageableExecutionUtils.getPage(rows, pageable, () -> countByFilter(filter));
+    }
+
+    @Override
+    public long countByFilterUpTo(BookFilter filter, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Book> book = query.from(Book.class);
+        Predicate predicate = BookSpecifications.matching(filter).toPredicate(book, query, builder);
+
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        query.select(book.get("id"));
+
+        // Only the id at the limit is read: when it exists the count is capped, otherwise fewer
+        // books than the limit match and they are counted by the database
+        boolean capped = limit > 0 && !entityManager.createQuery(query)
+            .setFirstResult(limit - 1)
+            .setMaxResults(1)
+            .getResultList()
+            .isEmpty();
+
+        return capped ? limit : Math.min(countByFilter(filter), Math.max(limit, 0));
+    }
+
+    @Override
+    public List<Book> findBatchAfter(long afterId, int size) {
+        return entityManager.createQuery("SELECT b FROM Book b WHERE b.id > :afterId"
+            + " ORDER BY b.id", Book.class)
+            .setParameter("afterId", afterId)
+            .setMaxResults(size)
+            .setHint(QueryHints.HINT_READONLY, true)
+            .setHint(QueryHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+            .getResultList();
+    }
+
+    @Override
+    public Stream<Book> streamByFilter(BookFilter filter, int fetchSize) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = builder.createQuery(Book.class);
+        Root<Book> book = query.from(Book.class);
+        Predicate predicate = BookSpecifications.matching(filter).toPredicate(book, query, builder);
+
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        query.select(book).orderBy(builder.asc(book.get("id")));
+
+        return entityManager.createQuery(query)
+            .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(QueryHints.HINT_READONLY, true)
+            .setHint(QueryHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+            .getResultStream();
+    }
+
+    @Override
+    public Map<String, Long> countByFilterGroupBy(BookFilter filter, String attribute,
+        int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Book> book = query.from(Book.class);
+        Predicate predicate = BookSpecifications.matching(filter).toPredicate(book, query, builder);
+        Path<String> value = book.get(attribute);
+        Expression<Long> count = builder.count(book);
+
+        query.multiselect(value, count)
+            .where(predicate == null ? builder.isNotNull(value)
+                : builder.and(predicate, builder.isNotNull(value)))
+            .groupBy(value)
+            .orderBy(builder.desc(count), builder.asc(value));
+
+        Map<String, Long> counts = new LinkedHashMap<String, Long>();
+
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(limit)
+            .getResultList()) {
+            counts.put(tuple.get(0, String.class), tuple.get(1, Long.class));
+        }
+
+        return counts;
+    }
+
+    private long countByFilter(BookFilter filter) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Book> book = query.from(Book.class);
+        Predicate predicate = BookSpecifications.matching(filter).toPredicate(book, query, builder);
+
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        query.select(builder.count(book));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private <T> TypedQuery<T> pageQuery(BookFilter filter, Pageable pageable, Class<T> type) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(type);
+        Root<Book> book = query.from(Book.class);
+        Predicate predicate = BookSpecifications.matching(filter).toPredicate(book, query, builder);
+
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        query.select(selection(type, book, builder))
+            .orderBy(QueryUtils.toOrders(pageable.getSort(), book, builder));
+
+        return entityManager.createQuery(query);
+    }
+
+    /**
+     * Select the managed {@link Book}s, or only the columns of a {@link BookDTO}, which are not
+     * tracked by the persistence context.
+     */
+
+    @SuppressWarnings("unchecked")
+    private <T> Selection<T> selection(Class<T> type, Root<Book> book, CriteriaBuilder builder) {
+        if (type == Book.class) {
+            return (Selection<T>) book;
+        }
+
+        if (type != BookDTO.class) {
+            throw new IllegalArgumentException("Unsupported projection " + type.getName());
+        }
+
+        return builder.construct(type, book.get("id"), book.get("genre"), book.get("author"),
+            book.get("image"), book.get("title"), book.get("subtitle"), book.get("publisher"),
+            book.get("year"), book.get("pages"), book.get("isbn"));
+    }
+
+    private Predicate seekPredicate(BookCursor cursor, Root<Book> book,
+        CriteriaBuilder builder) {
+        Path<Long> id = book.get("id");
+        boolean ascending = cursor.getDirection() == Direction.ASC;
+
+        if (cursor.isById()) {
+            return ascending ? builder.greaterThan(id, cursor.getLastId())
+                : builder.lessThan(id, cursor.getLastId());
+        }
+
+        Path<String> key = book.get(cursor.getProperty());
+
+        if (ascending) {
+            return builder.or(builder.greaterThan(key, cursor.getKey()),
+                builder.and(builder.equal(key, cursor.getKey()),
+                    builder.greaterThan(id, cursor.getLastId())));
+        }
+
+        return builder.or(builder.lessThan(key, cursor.getKey()),
+            builder.and(builder.equal(key, cursor.getKey()),
+                builder.lessThan(id, cursor.getLastId())));
+    }
+}
@@ -0,0 +1,92 @@
+package wolox.training.repositories;
+
+import java.util.Collection;
+import java.util.Locale;
+import org.springframework.data.jpa.domain.Specification;
+import wolox.training.models.Book;
+
+/**
+ * Factory of {@link Specification}s for {@link Book}s. Only the criteria that are supplied end up
+ * in the query, so every combination of filters renders its own statement and can be planned
+ * against the indexes that match it.
+ *
+ * @author M. G.
+ */
+
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    /**
+     * Create a specification for all the criteria of a filter.
+     *
+     * @param filter the criteria that the books must match
+     * @return the specification of the books that match the criteria
+     */
+
+    public static Specification<Book> matching(BookFilter filter) {
+        return Specification.where(equal("id", filter.getId()))
+            .and(idIn(filter.getIds()))
+            .and(contains("genre", filter.getGenre()))
+            .and(contains("title", filter.getTitleContains()))
+            .and(equal("author", filter.getAuthor()))
+            .and(equal("image", filter.getImage()))
+            .and(equal("title", filter.getTitle()))
+            .and(equal("subtitle", filter.getSubtitle()))
+            .and(equal("publisher", filter.getPublisher()))
+            .and(equal("year", filter.getYear()))
+            .and(equal("pages", filter.getPages()))
+            .and(equal("isbn", filter.getIsbn()));
+    }
+
+    /**
+     * Create a specification where an attribute is equal to a value.
+     *
+     * @param attribute the name of the attribute of the book
+     * @param value     the value of the attribute, or null to not filter by it
+     * @return the specification, or null if there is no value
+     */
+
+    public static Specification<Book> equal(String attribute, Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        return (book, query, builder) -> builder.equal(book.get(attribute), value);
+    }
+
+    /**
+     * Create a specification where an attribute contains a text, ignoring case.
+     *
+     * @param attribute the name of the attribute of the book
+     * @param text      the text that the attribute must contain, or null or empty to not filter
+     *                  by it
+     * @return the specification, or null if there is no text
+     */
+
+    public static Specification<Book> contains(String attribute, String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+
+        return (book, query, builder) -> builder.like(builder.lower(book.get(attribute)),
+            "%" + text.toLowerCase(Locale.ROOT) + "%");
+    }
+
+    /**
+     * Create a specification where the id is one of some values.
+     *
+     * @param ids the ids of the books, or null to not filter by them
+     * @return the specification, or null if there are no ids
+     */
+
+    public static Specification<Book> idIn(Collection<Long> ids) {
+        if (ids == null) {
+            return null;
+        }
+
+        return (book, query, builder) -> ids.isEmpty() ? builder.disjunction()
+            : book.get("id").in(ids);
+    }
+}
@@ -1,11 +1,13 @@
 package wolox.training.repositories;
 
-import java.time.LocalDate;
-import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.dto.UserSummaryDTO;
 import wolox.training.models.User;
 
 /**
@@ -14,29 +16,47 @@ import wolox.training.models.User;
  * @author M. G.
  */
 
-public interface UserRepository extends PagingAndSortingRepository<User, Long> {
+public interface UserRepository extends PagingAndSortingRepository<User, Long>,
+    UserRepositoryCustom {
 
     /**
-     * Find a {@link User} by its username.
+     * Replace the password hash of a {@link User}, unless it changed since it was read.
      *
-     * @param username the name of the user
-     * @return the user if it exists, and otherwise Optional.empty() object.
+     * @param id       the id of the user
+     * @param previous the password hash that was read
+     * @param password the new password hash
+     * @return the amount of users updated, 0 when the password hash changed
      */
-    Optional<User> findByUsername(String username);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id"
+        + " AND u.password = :previous")
+    int updatePassword(long id, String previous, String password);
+
+    /**
+     * Find a page of the {@link User}s without counting all of them. Only the columns of the
+     * users are read, without their books.
+     *
+     * @param pageable the parameters about pagination and sorting of the users
+     * @return a slice of the users
+     */
+
+    @Transactional(readOnly = true)
+    @Query("SELECT new wolox.training.dto.UserSummaryDTO(u.id, u.username, u.name, u.birthDate)"
+        + " FROM User u")
+    Slice<UserSummaryDTO> findSummarySlice(Pageable pageable);
 
     /**
-     * Find a {@link User} by its birthDay in a range and by its name (case insensitive).
+     * Find a page of the {@link User}s, counting all of them. Only the columns of the users are
+     * read, without their books.
      *
-     * @param startDate the start date where the birthDate should be included
-     * @param endDate   the end date where the birthDate should be included
-     * @param name      the name of the user (case insensitive)
-     * @param pageable  the parameters about pagination and sorting of the users
-     * @return the user if it exists, and otherwise Optional.empty() object.
+     * @param pageable the parameters about pagination and sorting of the users
+     * @return a page of the users
      */
 
-    @Query("SELECT u FROM User u WHERE (:startDate IS NULL OR u.birthDate >= :startDate) AND"
-        + " (:endDate IS NULL OR u.birthDate <= :endDate) AND (:name IS NULL OR UPPER(u.name) ="
-        + " UPPER(:name))")
-    Page<User> findByBirthDateBetweenAndNameIgnoreCase(LocalDate startDate, LocalDate endDate,
-        String name, Pageable pageable);
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT new wolox.training.dto.UserSummaryDTO(u.id, u.username, u.name,"
+        + " u.birthDate) FROM User u", countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserSummaryDTO> findSummaries(Pageable pageable);
 }
@@ -0,0 +1,60 @@
+package wolox.training.repositories;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import wolox.training.models.User;
+
+/**
+ * Queries of {@link UserRepository} that cannot be derived by Spring Data.
+ *
+ * @author M. G.
+ */
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Find a {@link User} by its username. The username is the natural id of the user, so the
+     * lookup goes through the second-level cache of Hibernate and a cached user is found without a
+     * query.
+     *
+     * @param username the name of the user
+     * @return the user if it exists, and otherwise Optional.empty() object.
+     */
+    Optional<User> findByUsername(String username);
+
+    /**
+     * Find a {@link User} by its birthDay in a range and by its name (case insensitive). Only the
+     * criteria that are supplied end up in the query, so the range is served by the index on the
+     * birth date and the name by the index on its upper case.
+     *
+     * @param startDate the start date where the birthDate should be included, or null
+     * @param endDate   the end date where the birthDate should be included, or null
+     * @param name      the name of the user (case insensitive), or null
+     * @param pageable  the parameters about pagination and sorting of the users
+     * @return a page of the users that match the criteria
+     */
+    Page<User> findByBirthDateBetweenAndNameIgnoreCase(LocalDate startDate, LocalDate endDate,
+        String name, Pageable pageable);
+
+    /**
+     * Add a book to the books of a {@link User} by inserting only its row of the join table,
+     * without loading the books that the user already has.
+     *
+     * @param userId the id of the user
+     * @param bookId the id of the book
+     * @return false if the user already had the book
+     */
+    boolean addBook(long userId, long bookId);
+
+    /**
+     * Remove a book from the books of a {@link User} by deleting only its row of the join table,
+     * without loading the books that the user has.
+     *
+     * @param userId the id of the user
+     * @param bookId the id of the book
+     * @return false if the user did not have the book
+     */
+    boolean deleteBook(long userId, long bookId);
+}
@@ -0,0 +1,136 @@
+package wolox.training.repositories;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.models.User;
+
+/**
+ * Implementation of {@link UserRepositoryCustom}. The queries run in read-only transactions
+ * unless the caller already started one.
+ *
+ * @author M. G.
+ */
+
+@Transactional(readOnly = true)
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private static final String USERS_BOOKS = "users_books";
+
+    private static final String INSERT_BOOK = "INSERT INTO users_books (users_id, books_id)"
+        + " SELECT :userId, :bookId WHERE NOT EXISTS (SELECT 1 FROM users_books"
+        + " WHERE users_id = :userId AND books_id = :bookId)";
+
+    private static final String DELETE_BOOK = "DELETE FROM users_books"
+        + " WHERE users_id = :userId AND books_id = :bookId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class)
+            .loadOptional(username);
+    }
+
+    @Override
+    public Page<User> findByBirthDateBetweenAndNameIgnoreCase(LocalDate startDate,
+        LocalDate endDate, String name, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<User> query = builder.createQuery(User.class);
+        Root<User> user = query.from(User.class);
+
+        query.select(user)
+            .where(birthDateAndName(startDate, endDate, name, user, builder))
+            .orderBy(QueryUtils.toOrders(pageable.getSort(), user, builder));
+
+        TypedQuery<User> typedQuery = entityManager.createQuery(query);
+
+        if (pageable.isUnpaged()) {
+            return new PageImpl<User>(typedQuery.getResultList());
+        }
+
+        List<User> users = typedQuery.setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultList();
+
+        return PageableExecutionUtils.getPage(users, pageable,
+            () -> countByBirthDateBetweenAndNameIgnoreCase(startDate, endDate, name));
+    }
+
+    @Override
+    @Transactional
+    public boolean addBook(long userId, long bookId) {
+        return executeOnUsersBooks(INSERT_BOOK, userId, bookId) > 0;
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteBook(long userId, long bookId) {
+        return executeOnUsersBooks(DELETE_BOOK, userId, bookId) > 0;
+    }
+
+    /**
+     * Run a statement on the join table. The table is declared as the only space of the query, so
+     * Hibernate evicts the cached collections of books of the users around the transaction, and
+     * not the whole second-level cache as it does for a native query without spaces.
+     */
+
+    private int executeOnUsersBooks(String sql, long userId, long bookId) {
+        return entityManager.createNativeQuery(sql)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace(USERS_BOOKS)
+            .setParameter("userId", userId)
+            .setParameter("bookId", bookId)
+            .executeUpdate();
+    }
+
+    private long countByBirthDateBetweenAndNameIgnoreCase(LocalDate startDate, LocalDate endDate,
+        String name) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<User> user = query.from(User.class);
+
+        query.select(builder.count(user))
+            .where(birthDateAndName(startDate, endDate, name, user, builder));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private Predicate[] birthDateAndName(LocalDate startDate, LocalDate endDate, String name,
+        Root<User> user, CriteriaBuilder builder) {
+        List<Predicate> predicates = new ArrayList<Predicate>();
+
+        if (startDate != null) {
+            predicates.add(builder.greaterThanOrEqualTo(user.get("birthDate"), startDate));
+        }
+
+        if (endDate != null) {
+            predicates.add(builder.lessThanOrEqualTo(user.get("birthDate"), endDate));
+        }
+
+        if (name != null) {
+            predicates.add(builder.equal(builder.upper(user.get("name")),
+                name.toUpperCase(Locale.ROOT)));
+        }
+
+        return predicates.toArray(new Predicate[0]);
+    }
+}
@@ -0,0 +1,263 @@
+package wolox.training.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index ranked with BM25. Documents are identified by an id, and every time a
+ * document is indexed it gets a new ordinal so that postings are always appended in order. The
+ * postings of removed documents are skipped until the index is compacted.
+ *
+ * @author M. G.
+ */
+
+public class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, PostingsList> postings = new HashMap<String, PostingsList>();
+    private final Map<Long, Integer> ordinals = new HashMap<Long, Integer>();
+    private long[] ids = new long[64];
+    private int[] lengths = new int[64];
+    private String[][] terms = new String[64][];
+    private BitSet deleted = new BitSet();
+    private int nextOrdinal;
+    private int live;
+    private long totalLength;
+
+    /**
+     * Index a document, replacing the previous version if it was already indexed.
+     *
+     * @param id    the id of the document
+     * @param texts the texts of the document
+     */
+
+    public void put(long id, String... texts) {
+        Map<String, Integer> frequencies = Tokenizer.frequencies(texts);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+
+            int ordinal = nextOrdinal++;
+            ensureCapacity(ordinal);
+
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new PostingsList())
+                    .add(ordinal, entry.getValue());
+                length += entry.getValue();
+            }
+
+            ids[ordinal] = id;
+            lengths[ordinal] = length;
+            terms[ordinal] = frequencies.keySet().toArray(new String[0]);
+            ordinals.put(id, ordinal);
+            live++;
+            totalLength += length;
+
+            // Every update leaves the postings of its previous version behind
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a document from the index.
+     *
+     * @param id the id of the document
+     */
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the documents most relevant to a query.
+     *
+     * @param query the text to search
+     * @param limit the maximum amount of documents returned
+     * @return the documents found, the most relevant first
+     */
+
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> queryTerms = new HashSet<String>(Tokenizer.tokenize(query));
+
+        lock.readLock().lock();
+        try {
+            if (live == 0 || limit <= 0) {
+                return Collections.emptyList();
+            }
+
+            float averageLength = (float) totalLength / live;
+            Map<Integer, Float> scores = new HashMap<Integer, Float>();
+
+            for (String term : queryTerms) {
+                PostingsList list = postings.get(term);
+
+                if (list == null) {
+                    continue;
+                }
+
+                int documents = list.getDocuments();
+                float idf = (float) Math.log(1 + (live - documents + 0.5) / (documents + 0.5));
+                PostingsList.Reader reader = list.reader();
+
+                while (reader.next()) {
+                    int ordinal = reader.ordinal();
+
+                    if (deleted.get(ordinal)) {
+                        continue;
+                    }
+
+                    int frequency = reader.frequency();
+                    float norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+                    float score = idf * frequency * (K1 + 1) / (frequency + norm);
+
+                    scores.merge(ordinal, score, Float::sum);
+                }
+            }
+
+            return top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<SearchHit> top(Map<Integer, Float> scores, int limit) {
+        Comparator<SearchHit> byScore = Comparator.comparingDouble(SearchHit::getScore);
+        PriorityQueue<SearchHit> heap = new PriorityQueue<SearchHit>(limit + 1, byScore);
+
+        for (Map.Entry<Integer, Float> entry : scores.entrySet()) {
+            float score = entry.getValue();
+
+            if (heap.size() < limit) {
+                heap.add(new SearchHit(ids[entry.getKey()], score));
+            } else if (score > heap.peek().getScore()) {
+                heap.poll();
+                heap.add(new SearchHit(ids[entry.getKey()], score));
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<SearchHit>(heap);
+        hits.sort(byScore.reversed());
+
+        return hits;
+    }
+
+    private void removeDocument(long id) {
+        Integer ordinal = ordinals.remove(id);
+
+        if (ordinal == null) {
+            return;
+        }
+
+        for (String term : terms[ordinal]) {
+            PostingsList list = postings.get(term);
+            list.removeDocument();
+
+            if (list.getDocuments() == 0) {
+                postings.remove(term);
+            }
+        }
+
+        deleted.set(ordinal);
+        terms[ordinal] = null;
+        totalLength -= lengths[ordinal];
+        live--;
+    }
+
+    private void ensureCapacity(int ordinal) {
+        if (ordinal < ids.length) {
+            return;
+        }
+
+        int capacity = Math.max(ids.length * 2, ordinal + 1);
+        ids = Arrays.copyOf(ids, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        terms = Arrays.copyOf(terms, capacity);
+    }
+
+    private void compactIfNeeded() {
+        int removed = nextOrdinal - live;
+
+        if (removed >= MIN_DELETED_TO_COMPACT && removed > live) {
+            compact();
+        }
+    }
+
+    /**
+     * Renumber the live documents and rewrite the postings without the removed ones.
+     */
+
+    private void compact() {
+        int[] remap = new int[nextOrdinal];
+        int next = 0;
+
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (deleted.get(ordinal)) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = next;
+                ids[next] = ids[ordinal];
+                lengths[next] = lengths[ordinal];
+                terms[next] = terms[ordinal];
+                ordinals.put(ids[next], next);
+                next++;
+            }
+        }
+
+        Arrays.fill(terms, next, nextOrdinal, null);
+
+        Map<String, PostingsList> compacted = new HashMap<String, PostingsList>();
+
+        for (Map.Entry<String, PostingsList> entry : postings.entrySet()) {
+            PostingsList list = new PostingsList();
+            PostingsList.Reader reader = entry.getValue().reader();
+
+            while (reader.next()) {
+                int ordinal = remap[reader.ordinal()];
+
+                if (ordinal >= 0) {
+                    list.add(ordinal, reader.frequency());
+                }
+            }
+
+            compacted.put(entry.getKey(), list);
+        }
+
+        postings = compacted;
+        deleted = new BitSet();
+        nextOrdinal = next;
+    }
+}
@@ -0,0 +1,99 @@
+package wolox.training.search;
+
+import java.util.Arrays;
+
+/**
+ * Compressed list of the documents that contain a term. Each posting is stored as the gap to the
+ * previous document ordinal followed by the term frequency, both as variable length integers, so
+ * ordinals must be added in increasing order.
+ *
+ * @author M. G.
+ */
+
+final class PostingsList {
+
+    private byte[] data = new byte[8];
+    private int length;
+    private int lastOrdinal = -1;
+    private int documents;
+
+    void add(int ordinal, int frequency) {
+        if (data.length - length < 10) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+
+        writeVarInt(ordinal - lastOrdinal);
+        writeVarInt(frequency);
+        lastOrdinal = ordinal;
+        documents++;
+    }
+
+    void removeDocument() {
+        documents--;
+    }
+
+    /**
+     * @return the amount of live documents in the list
+     */
+
+    int getDocuments() {
+        return documents;
+    }
+
+    Reader reader() {
+        return new Reader();
+    }
+
+    private void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        data[length++] = (byte) value;
+    }
+
+    /**
+     * Sequential decoder of the postings.
+     */
+
+    final class Reader {
+
+        private int position;
+        private int ordinal = -1;
+        private int frequency;
+
+        boolean next() {
+            if (position >= length) {
+                return false;
+            }
+
+            ordinal += readVarInt();
+            frequency = readVarInt();
+
+            return true;
+        }
+
+        int ordinal() {
+            return ordinal;
+        }
+
+        int frequency() {
+            return frequency;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte current;
+
+            do {
+                current = data[position++];
+                value |= (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+
+            return value;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package wolox.training.search;
+
+/**
+ * A document found by {@link InvertedIndex} together with its relevance.
+ *
+ * @author M. G.
+ */
+
+public class SearchHit {
+
+    private final long id;
+    private final float score;
+
+    public SearchHit(long id, float score) {
+        this.id = id;
+        this.score = score;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public float getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,68 @@
+package wolox.training.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Splits text into lower case terms made of letters and digits.
+ *
+ * @author M. G.
+ */
+
+public final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Split a text into its terms, in the order they appear.
+     *
+     * @param text the text to be split, it can be null
+     * @return the terms of the text
+     */
+
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<String>();
+
+        if (text == null) {
+            return terms;
+        }
+
+        int start = -1;
+
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inTerm = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+
+            if (inTerm && start < 0) {
+                start = i;
+            } else if (!inTerm && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+
+        return terms;
+    }
+
+    /**
+     * Count how many times each term appears in some texts.
+     *
+     * @param texts the texts to be split, they can be null
+     * @return the frequency of each term
+     */
+
+    public static Map<String, Integer> frequencies(String... texts) {
+        Map<String, Integer> frequencies = new HashMap<String, Integer>();
+
+        for (String text : texts) {
+            for (String term : tokenize(text)) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+        }
+
+        return frequencies;
+    }
+}
@@ -0,0 +1,331 @@
+package wolox.training.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the trigrams of a text attribute, used to find the documents whose value
+ * contains a substring without scanning all of them. The postings of every trigram of the
+ * substring are intersected, starting with the shortest one, and the candidates are then checked
+ * against the indexed value. Matching is case insensitive.
+ *
+ * @author M. G.
+ */
+
+public class TrigramIndex {
+
+    public static final int GRAM_LENGTH = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> values = new HashMap<Long, String>();
+    private final Map<String, LongList> postings = new HashMap<String, LongList>();
+
+    /**
+     * Index the value of a document, replacing the previous one.
+     *
+     * @param id    the id of the document
+     * @param value the value of the attribute, it can be null
+     */
+
+    public void put(long id, String value) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+
+            if (value == null) {
+                return;
+            }
+
+            String normalized = normalize(value);
+            values.put(id, normalized);
+
+            for (String gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, key -> new LongList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the documents whose value contains a text.
+     *
+     * @param text the text that the values must contain
+     * @return the sorted ids of the documents, or null if the text is shorter than a trigram
+     */
+
+    public long[] find(String text) {
+        String normalized = normalize(text);
+
+        if (normalized.length() < GRAM_LENGTH) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<LongList> lists = new ArrayList<LongList>();
+
+            for (String gram : grams(normalized)) {
+                LongList list = postings.get(gram);
+
+                if (list == null) {
+                    return new long[0];
+                }
+
+                lists.add(list);
+            }
+
+            lists.sort(Comparator.comparingInt(LongList::size));
+
+            long[] candidates = lists.get(0).toArray();
+            int size = candidates.length;
+
+            for (int i = 1; i < lists.size() && size > 0; i++) {
+                size = lists.get(i).retainAll(candidates, size);
+            }
+
+            int matches = 0;
+
+            for (int i = 0; i < size; i++) {
+                if (values.get(candidates[i]).contains(normalized)) {
+                    candidates[matches++] = candidates[i];
+                }
+            }
+
+            return Arrays.copyOf(candidates, matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeDocument(long id) {
+        String previous = values.remove(id);
+
+        if (previous == null) {
+            return;
+        }
+
+        for (String gram : grams(previous)) {
+            LongList list = postings.get(gram);
+            list.remove(id);
+
+            if (list.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<String>();
+
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+
+        return grams;
+    }
+
+    /**
+     * Sorted list of ids. Ids are usually added in increasing order, so adding is an append. The
+     * ids added out of order and the ids removed are kept in small sorted buffers instead, and
+     * merged into the list in a single pass once a buffer is full, so an update does not shift a
+     * long list for every one of its trigrams.
+     */
+
+    private static final class LongList {
+
+        private static final int MIN_BUFFER = 64;
+        private static final int MAX_BUFFER = 4096;
+
+        private long[] ids = new long[4];
+        private int size;
+        private long[] added = new long[0];
+        private int addedSize;
+        private long[] removed = new long[0];
+        private int removedSize;
+
+        void add(long id) {
+            int position = indexOf(removed, removedSize, id);
+
+            if (position >= 0) {
+                removedSize = delete(removed, removedSize, position);
+                return;
+            }
+
+            if (contains(id)) {
+                return;
+            }
+
+            if (addedSize == 0 && (size == 0 || ids[size - 1] < id)) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+                }
+
+                ids[size++] = id;
+                return;
+            }
+
+            added = insert(added, addedSize, id);
+            addedSize++;
+            mergeIfFull();
+        }
+
+        void remove(long id) {
+            int position = indexOf(added, addedSize, id);
+
+            if (position >= 0) {
+                addedSize = delete(added, addedSize, position);
+                return;
+            }
+
+            if (Arrays.binarySearch(ids, 0, size, id) < 0
+                || indexOf(removed, removedSize, id) >= 0) {
+                return;
+            }
+
+            if (ids[size - 1] == id && removedSize == 0) {
+                size--;
+                return;
+            }
+
+            removed = insert(removed, removedSize, id);
+            removedSize++;
+            mergeIfFull();
+        }
+
+        int size() {
+            return size - removedSize + addedSize;
+        }
+
+        long[] toArray() {
+            long[] array = new long[size()];
+            int length = 0;
+            int next = 0;
+            int nextRemoved = 0;
+
+            for (int i = 0; i < size; i++) {
+                long id = ids[i];
+
+                if (nextRemoved < removedSize && removed[nextRemoved] == id) {
+                    nextRemoved++;
+                    continue;
+                }
+
+                while (next < addedSize && added[next] < id) {
+                    array[length++] = added[next++];
+                }
+
+                array[length++] = id;
+            }
+
+            while (next < addedSize) {
+                array[length++] = added[next++];
+            }
+
+            return array;
+        }
+
+        /**
+         * Keep in the candidates only the ids that are also in this list.
+         *
+         * @param candidates sorted ids, they are compacted in place
+         * @param length     the amount of candidates in use
+         * @return the amount of candidates kept
+         */
+
+        int retainAll(long[] candidates, int length) {
+            int kept = 0;
+            int from = 0;
+
+            for (int i = 0; i < length; i++) {
+                long id = candidates[i];
+                boolean found = false;
+
+                if (from < size) {
+                    int position = Arrays.binarySearch(ids, from, size, id);
+
+                    if (position >= 0) {
+                        found = indexOf(removed, removedSize, id) < 0;
+                        from = position + 1;
+                    } else {
+                        from = -position - 1;
+                    }
+                }
+
+                if (found || indexOf(added, addedSize, id) >= 0) {
+                    candidates[kept++] = id;
+                }
+            }
+
+            return kept;
+        }
+
+        private boolean contains(long id) {
+            return indexOf(added, addedSize, id) >= 0
+                || (Arrays.binarySearch(ids, 0, size, id) >= 0
+                && indexOf(removed, removedSize, id) < 0);
+        }
+
+        private void mergeIfFull() {
+            int limit = Math.min(MAX_BUFFER, Math.max(MIN_BUFFER, size >>> 6));
+
+            if (addedSize < limit && removedSize < limit) {
+                return;
+            }
+
+            ids = toArray();
+            size = ids.length;
+            added = new long[0];
+            addedSize = 0;
+            removed = new long[0];
+            removedSize = 0;
+        }
+
+        private static int indexOf(long[] buffer, int length, long id) {
+            return length == 0 ? -1 : Arrays.binarySearch(buffer, 0, length, id);
+        }
+
+        /**
+         * Insert an id that is not in a sorted buffer, growing it when it is full.
+         */
+
+        private static long[] insert(long[] buffer, int length, long id) {
+            int position = -Arrays.binarySearch(buffer, 0, length, id) - 1;
+            long[] target = length == buffer.length
+                ? Arrays.copyOf(buffer, Math.max(8, length * 2)) : buffer;
+
+            System.arraycopy(target, position, target, position + 1, length - position);
+            target[position] = id;
+
+            return target;
+        }
+
+        private static int delete(long[] buffer, int length, int position) {
+            System.arraycopy(buffer, position + 1, buffer, position, length - position - 1);
+
+            return length - 1;
+        }
+    }
+}
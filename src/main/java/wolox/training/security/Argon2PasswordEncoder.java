@@ -0,0 +1,160 @@
+package wolox.training.security;
+
+import java.security.MessageDigest;
+import java.util.Base64;
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+import org.springframework.security.crypto.keygen.BytesKeyGenerator;
+import org.springframework.security.crypto.keygen.KeyGenerators;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Hashes the passwords with argon2id, on the implementation of BouncyCastle. The hashes are in
+ * the usual {@code $argon2id$v=19$m=65536,t=3,p=1$salt$hash} form, with the salt and the hash in
+ * Base64 without padding, so the memory, the iterations and the parallelism of every hash are
+ * read back to verify it and to tell whether it was made with a lower cost.
+ *
+ * @author M. G.
+ */
+
+public class Argon2PasswordEncoder implements PasswordEncoder {
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final BytesKeyGenerator saltGenerator;
+    private final int hashLength;
+    private final int parallelism;
+    private final int memoryKib;
+    private final int iterations;
+
+    public Argon2PasswordEncoder(int saltLength, int hashLength, int parallelism, int memoryKib,
+        int iterations) {
+        this.saltGenerator = KeyGenerators.secureRandom(saltLength);
+        this.hashLength = hashLength;
+        this.parallelism = parallelism;
+        this.memoryKib = memoryKib;
+        this.iterations = iterations;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        Hash hash = new Hash(Argon2Parameters.ARGON2_id, Argon2Parameters.ARGON2_VERSION_13,
+            memoryKib, iterations, parallelism, saltGenerator.generateKey());
+        hash.hash = generate(rawPassword, hash, hashLength);
+        return hash.toString();
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Hash hash = Hash.parse(encodedPassword);
+
+        if (hash == null) {
+            return false;
+        }
+
+        return MessageDigest.isEqual(hash.hash, generate(rawPassword, hash, hash.hash.length));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        Hash hash = Hash.parse(encodedPassword);
+
+        return hash != null && (hash.memoryKib < memoryKib || hash.iterations < iterations);
+    }
+
+    private static byte[] generate(CharSequence rawPassword, Hash hash, int length) {
+        Argon2Parameters parameters = new Argon2Parameters.Builder(hash.type)
+            .withVersion(hash.version)
+            .withMemoryAsKB(hash.memoryKib)
+            .withIterations(hash.iterations)
+            .withParallelism(hash.parallelism)
+            .withSalt(hash.salt)
+            .build();
+
+        Argon2BytesGenerator generator = new Argon2BytesGenerator();
+        generator.init(parameters);
+
+        byte[] result = new byte[length];
+        generator.generateBytes(rawPassword.toString().toCharArray(), result);
+        return result;
+    }
+
+    private static final class Hash {
+
+        private static final String[] TYPES = {"argon2d", "argon2i", "argon2id"};
+
+        private final int type;
+        private final int version;
+        private final int memoryKib;
+        private final int iterations;
+        private final int parallelism;
+        private final byte[] salt;
+        private byte[] hash;
+
+        private Hash(int type, int version, int memoryKib, int iterations, int parallelism,
+            byte[] salt) {
+            this.type = type;
+            this.version = version;
+            this.memoryKib = memoryKib;
+            this.iterations = iterations;
+            this.parallelism = parallelism;
+            this.salt = salt;
+        }
+
+        /**
+         * Read a stored hash.
+         *
+         * @param encoded the hash, as written by {@link #toString()}
+         * @return the hash, or null if it is not an argon2 hash
+         */
+
+        private static Hash parse(String encoded) {
+            if (encoded == null) {
+                return null;
+            }
+
+            String[] parts = encoded.split("\\$");
+
+            if (parts.length != 6 || !parts[0].isEmpty() || !parts[2].startsWith("v=")) {
+                return null;
+            }
+
+            int type = indexOf(parts[1]);
+            String[] costs = parts[3].split(",");
+
+            if (type < 0 || costs.length != 3 || !costs[0].startsWith("m=")
+                || !costs[1].startsWith("t=") || !costs[2].startsWith("p=")) {
+                return null;
+            }
+
+            try {
+                Hash hash = new Hash(type, Integer.parseInt(parts[2].substring(2)),
+                    Integer.parseInt(costs[0].substring(2)),
+                    Integer.parseInt(costs[1].substring(2)),
+                    Integer.parseInt(costs[2].substring(2)), DECODER.decode(parts[4]));
+                hash.hash = DECODER.decode(parts[5]);
+                return hash;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        private static int indexOf(String type) {
+            for (int i = 0; i < TYPES.length; i++) {
+                if (TYPES[i].equals(type)) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        @Override
+        public String toString() {
+            return "$" + TYPES[type] + "$v=" + version + "$m=" + memoryKib + ",t=" + iterations
+                + ",p=" + parallelism + "$" + ENCODER.encodeToString(salt) + "$"
+                + ENCODER.encodeToString(hash);
+        }
+    }
+}
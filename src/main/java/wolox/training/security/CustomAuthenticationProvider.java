@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 import wolox.training.models.User;
 import wolox.training.repositories.UserRepository;
 import wolox.training.services.PasswordEncoderService;
+import wolox.training.services.UserService;
 
 @Component
 public class CustomAuthenticationProvider implements AuthenticationProvider {
@@ -21,16 +22,31 @@ public class CustomAuthenticationProvider implements AuthenticationProvider {
     @Autowired
     private PasswordEncoderService passwordEncoderService;
 
+    @Autowired
+    private VerifiedCredentialCache verifiedCredentialCache;
+
+    @Autowired
+    private UserService userService;
+
     @Override
     public Authentication authenticate(Authentication authentication)
         throws AuthenticationException {
 
         String name = authentication.getName();
         String password = authentication.getCredentials().toString();
+
+        if (verifiedCredentialCache.isVerified(name, password)) {
+            return new UsernamePasswordAuthenticationToken(
+                name, password, new ArrayList<>());
+        }
+
+        long invalidations = verifiedCredentialCache.invalidations();
         Optional<User> user = userRepository.findByUsername(name);
 
         if (user.isPresent() && passwordEncoderService
             .matches(password, user.get().getPassword())) {
+            userService.upgradePassword(user.get(), password);
+            verifiedCredentialCache.verified(name, password, invalidations);
             return new UsernamePasswordAuthenticationToken(
                 name, password, new ArrayList<>());
         } else {
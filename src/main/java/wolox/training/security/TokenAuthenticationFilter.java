@@ -0,0 +1,50 @@
+package wolox.training.security;
+
+import java.io.IOException;
+import java.util.Collections;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Authenticates the requests that carry a bearer access token. The token is verified by
+ * {@link TokenService} without reaching the database; requests without a valid token are left
+ * unauthenticated for the next filters.
+ *
+ * @author M. G.
+ */
+
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+        FilterChain chain) throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (authorization != null && authorization.startsWith(BEARER)) {
+            TokenClaims claims = tokenService.verify(authorization.substring(BEARER.length()),
+                TokenService.Type.ACCESS);
+
+            if (claims != null) {
+                SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(claims.getUsername(), null,
+                        Collections.emptyList()));
+            }
+        }
+
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,26 @@
+package wolox.training.security;
+
+/**
+ * Claims of a verified token.
+ *
+ * @author M. G.
+ */
+
+public class TokenClaims {
+
+    private final String username;
+    private final String fingerprint;
+
+    public TokenClaims(String username, String fingerprint) {
+        this.username = username;
+        this.fingerprint = fingerprint;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+}
@@ -0,0 +1,190 @@
+package wolox.training.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Issues and verifies the tokens of the API, which are JWTs signed with HMAC-SHA256. An access
+ * token is verified with its signature and its expiration only, so authenticating a request costs
+ * an HMAC and no database lookup. A refresh token lives longer and carries a fingerprint of the
+ * password hash of its user, so changing the password revokes the refresh tokens issued before.
+ *
+ * <p>The key is read from {@code security.token.secret} as Base64, and it must be the same on
+ * every node so a token issued by one is accepted by the others. The service only exists when
+ * {@code security.token.enabled} is true, and then the application does not start without a key
+ * of at least 256 bits.</p>
+ *
+ * @author M. G.
+ */
+
+@Component
+@ConditionalOnProperty(name = "security.token.enabled", havingValue = "true")
+public class TokenService {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private static final String HEADER = ENCODER.encodeToString(
+        "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private static final int KEY_BYTES = 32;
+    private static final int FINGERPRINT_BYTES = 12;
+
+    public enum Type {
+        ACCESS, REFRESH
+    }
+
+    @Value("${security.token.secret:}")
+    private String secret;
+
+    @Value("${security.token.accessTtlSeconds:900}")
+    private long accessTtlSeconds;
+
+    @Value("${security.token.refreshTtlSeconds:604800}")
+    private long refreshTtlSeconds;
+
+    private HashFunction hmac;
+
+    @PostConstruct
+    public void init() {
+        if (secret == null || secret.trim().isEmpty()) {
+            throw new IllegalStateException("security.token.secret must be set to a Base64 key of"
+                + " at least " + KEY_BYTES + " bytes, shared by every node");
+        }
+
+        byte[] key;
+
+        try {
+            key = Base64.getDecoder().decode(secret.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("security.token.secret is not Base64", e);
+        }
+
+        if (key.length < KEY_BYTES) {
+            throw new IllegalStateException("security.token.secret must be at least " + KEY_BYTES
+                + " bytes long");
+        }
+
+        hmac = Hashing.hmacSha256(key);
+    }
+
+    /**
+     * Issue a token for a user.
+     *
+     * @param type         the type of the token
+     * @param username     the username of the user
+     * @param passwordHash the password hash of the user, which only refresh tokens carry
+     * @return the signed token
+     */
+
+    public String issue(Type type, String username, String passwordHash) {
+        Map<String, Object> claims = new LinkedHashMap<String, Object>();
+        claims.put("sub", username);
+        claims.put("typ", type.name());
+        claims.put("exp", Instant.now().getEpochSecond() + ttlSeconds(type));
+
+        if (type == Type.REFRESH) {
+            claims.put("fpt", fingerprint(passwordHash));
+        }
+
+        String payload;
+
+        try {
+            payload = ENCODER.encodeToString(MAPPER.writeValueAsBytes(claims));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        String content = HEADER + "." + payload;
+
+        return content + "." + ENCODER.encodeToString(sign(content));
+    }
+
+    /**
+     * Verify a token and read its claims.
+     *
+     * @param token the signed token
+     * @param type  the type that the token must have
+     * @return the claims of the token, or null if it is malformed, forged, expired or of another
+     *     type
+     */
+
+    public TokenClaims verify(String token, Type type) {
+        int payloadAt = token.indexOf('.');
+        int signatureAt = token.lastIndexOf('.');
+
+        if (payloadAt < 0 || signatureAt == payloadAt
+            || !HEADER.equals(token.substring(0, payloadAt))) {
+            return null;
+        }
+
+        try {
+            byte[] signature = DECODER.decode(token.substring(signatureAt + 1));
+
+            if (!MessageDigest.isEqual(signature, sign(token.substring(0, signatureAt)))) {
+                return null;
+            }
+
+            JsonNode claims = MAPPER.readTree(
+                DECODER.decode(token.substring(payloadAt + 1, signatureAt)));
+
+            if (!type.name().equals(claims.path("typ").asText())
+                || claims.path("exp").asLong() <= Instant.now().getEpochSecond()) {
+                return null;
+            }
+
+            return new TokenClaims(claims.path("sub").asText(), claims.path("fpt").asText(null));
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Whether the fingerprint of a refresh token matches the current password hash of its user.
+     *
+     * @param claims       the claims of the refresh token
+     * @param passwordHash the password hash of the user
+     * @return true if the password did not change since the token was issued
+     */
+
+    public boolean matchesPassword(TokenClaims claims, String passwordHash) {
+        return claims.getFingerprint() != null && MessageDigest.isEqual(
+            claims.getFingerprint().getBytes(StandardCharsets.US_ASCII),
+            fingerprint(passwordHash).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public long getAccessTtlSeconds() {
+        return accessTtlSeconds;
+    }
+
+    private long ttlSeconds(Type type) {
+        return type == Type.ACCESS ? accessTtlSeconds : refreshTtlSeconds;
+    }
+
+    private String fingerprint(String passwordHash) {
+        byte[] digest = hmac.hashString(passwordHash, StandardCharsets.UTF_8).asBytes();
+        byte[] fingerprint = new byte[FINGERPRINT_BYTES];
+        System.arraycopy(digest, 0, fingerprint, 0, FINGERPRINT_BYTES);
+
+        return ENCODER.encodeToString(fingerprint);
+    }
+
+    private byte[] sign(String content) {
+        return hmac.hashString(content, StandardCharsets.US_ASCII).asBytes();
+    }
+}
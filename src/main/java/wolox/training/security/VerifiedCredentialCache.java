@@ -0,0 +1,129 @@
+package wolox.training.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, short-lived cache of the credentials that were verified, so that a client sending the
+ * same credentials on every request is checked with an HMAC instead of bcrypt. The passwords are
+ * never kept: each username maps to the HMAC of its last verified password, under a random key
+ * that only lives in this process. The entries must be invalidated when the password or the
+ * username of a user changes, or when it is deleted; the TTL bounds how long other nodes keep
+ * accepting the old credentials.
+ *
+ * @author M. G.
+ */
+
+@Component
+public class VerifiedCredentialCache {
+
+    private static final int KEY_BYTES = 32;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.credentialCache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.credentialCache.maximumSize:10000}")
+    private long maximumSize;
+
+    @Value("${security.credentialCache.ttlSeconds:60}")
+    private long ttlSeconds;
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private HashFunction hmac;
+    private Cache<String, byte[]> verified;
+
+    @PostConstruct
+    public void build() {
+        byte[] key = new byte[KEY_BYTES];
+        new SecureRandom().nextBytes(key);
+
+        hmac = Hashing.hmacSha256(key);
+        verified = Caffeine.newBuilder()
+            .maximumSize(enabled ? maximumSize : 0)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, verified, "verifiedCredentials");
+        }
+    }
+
+    /**
+     * Whether a password was verified for a user recently.
+     *
+     * @param username the username of the user
+     * @param password the password presented
+     * @return true if the same password was verified and it was not invalidated since
+     */
+
+    public boolean isVerified(String username, String password) {
+        byte[] digest = verified.getIfPresent(username);
+
+        return digest != null && MessageDigest.isEqual(digest, digest(password));
+    }
+
+    /**
+     * Return the amount of invalidations so far. It is read before a user is loaded to verify its
+     * password, so that the result is not cached when the user changed in the meantime.
+     *
+     * @return the amount of invalidations
+     */
+
+    public long invalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * Remember that a password was verified for a user, unless an invalidation happened since the
+     * user was loaded.
+     *
+     * @param username      the username of the user
+     * @param password      the password presented
+     * @param invalidations the amount of invalidations before the user was loaded
+     */
+
+    public void verified(String username, String password, long invalidations) {
+        if (!enabled || invalidations != this.invalidations.get()) {
+            return;
+        }
+
+        verified.put(username, digest(password));
+
+        if (invalidations != this.invalidations.get()) {
+            verified.invalidate(username);
+        }
+    }
+
+    /**
+     * Forget the verified password of a user.
+     *
+     * @param username the username of the user
+     */
+
+    public void invalidate(String username) {
+        invalidations.incrementAndGet();
+        verified.invalidate(username);
+    }
+
+    private byte[] digest(String password) {
+        return hmac.hashString(password, StandardCharsets.UTF_8).asBytes();
+    }
+}
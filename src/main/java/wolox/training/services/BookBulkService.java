@@ -0,0 +1,196 @@
+package wolox.training.services;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonMappingException.Reference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import wolox.training.dto.BulkResultDTO;
+import wolox.training.models.Book;
+
+/**
+ * Creates many {@link Book}s from a JSON array or from newline delimited JSON. The rows are read
+ * one at a time and inserted in chunks, each one in its own transaction and sent to the database
+ * in JDBC batches. When a chunk fails its rows are retried one by one, so an invalid row only
+ * rejects itself.
+ *
+ * @author M. G.
+ */
+
+@Service
+public class BookBulkService {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${books.bulk.chunkSize:1000}")
+    private int chunkSize;
+
+    /**
+     * Create the {@link Book}s read from an input.
+     *
+     * @param input a JSON array of books, or books separated by new lines
+     * @return the amount of books received and created, and the errors of the rejected rows
+     * @throws IOException if the input cannot be read
+     */
+
+    public BulkResultDTO ingest(InputStream input) throws IOException {
+        BulkResultDTO result = new BulkResultDTO();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Row> chunk = new ArrayList<Row>(chunkSize);
+        int row = 0;
+
+        try (MappingIterator<JsonNode> nodes = objectMapper.readerFor(JsonNode.class)
+            .readValues(input)) {
+            while (nextRow(nodes, result, row + 1)) {
+                JsonNode node = nodes.nextValue();
+                row++;
+
+                Book book;
+
+                try {
+                    book = toBook(node);
+                } catch (IllegalArgumentException e) {
+                    result.addError(row, describe(e));
+                    continue;
+                }
+
+                String error = validate(book);
+
+                if (error != null) {
+                    result.addError(row, error);
+                    continue;
+                }
+
+                chunk.add(new Row(row, node, book));
+
+                if (chunk.size() == chunkSize) {
+                    insert(chunk, result, transaction);
+                }
+            }
+        }
+
+        insert(chunk, result, transaction);
+        result.setReceived(row);
+
+        return result;
+    }
+
+    private boolean nextRow(MappingIterator<JsonNode> nodes, BulkResultDTO result, int row) {
+        try {
+            return nodes.hasNextValue();
+        } catch (IOException e) {
+            result.addError(row, "Malformed JSON, the remaining rows were not read");
+            return false;
+        }
+    }
+
+    private String validate(Book book) {
+        if (book.getId() != 0) {
+            return "The id is assigned by the server";
+        }
+
+        Set<ConstraintViolation<Book>> violations = validator.validate(book);
+
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Book> violation = violations.iterator().next();
+            return "Invalid " + violation.getPropertyPath() + ": " + violation.getMessage();
+        }
+
+        return null;
+    }
+
+    private void insert(List<Row> chunk, BulkResultDTO result, TransactionTemplate transaction) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            transaction.execute(status -> {
+                for (Row row : chunk) {
+                    entityManager.persist(row.book);
+                }
+
+                entityManager.flush();
+                entityManager.clear();
+                return null;
+            });
+            result.setCreated(result.getCreated() + chunk.size());
+        } catch (RuntimeException e) {
+            // The books of the failed chunk already have ids, so they are read again to retry
+            for (Row row : chunk) {
+                insert(row, result, transaction);
+            }
+        }
+
+        chunk.clear();
+    }
+
+    private void insert(Row row, BulkResultDTO result, TransactionTemplate transaction) {
+        try {
+            transaction.execute(status -> {
+                entityManager.persist(toBook(row.node));
+                entityManager.flush();
+                entityManager.clear();
+                return null;
+            });
+            result.setCreated(result.getCreated() + 1);
+        } catch (RuntimeException e) {
+            result.addError(row.number, "The book could not be created: "
+                + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    private Book toBook(JsonNode node) {
+        return objectMapper.convertValue(node, Book.class);
+    }
+
+    private static String describe(IllegalArgumentException e) {
+        if (e.getCause() instanceof JsonMappingException) {
+            List<Reference> path = ((JsonMappingException) e.getCause()).getPath();
+
+            if (!path.isEmpty() && path.get(path.size() - 1).getFieldName() != null) {
+                return "Invalid " + path.get(path.size() - 1).getFieldName();
+            }
+        }
+
+        return "Invalid book";
+    }
+
+    private static final class Row {
+
+        private final int number;
+        private final JsonNode node;
+        private final Book book;
+
+        Row(int number, JsonNode node, Book book) {
+            this.number = number;
+            this.node = node;
+            this.book = book;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package wolox.training.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.dto.ExportFormat;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookFilter;
+import wolox.training.repositories.BookRepository;
+
+/**
+ * Writes the catalog of {@link Book}s to a stream. The books are read through a database cursor
+ * and detached once written, so the memory used does not depend on the size of the catalog.
+ *
+ * @author M. G.
+ */
+
+@Service
+public class BookExportService {
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String CSV_HEADER =
+        "id,genre,author,image,title,subtitle,publisher,year,pages,isbn";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Write all the {@link Book}s that match a filter, ordered by id.
+     *
+     * @param filter the criteria that the books must match
+     * @param format the format of the output
+     * @param output where the books are written, it is not closed
+     * @throws IOException if the output cannot be written
+     */
+
+    @Transactional(readOnly = true)
+    public void export(BookFilter filter, ExportFormat format, OutputStream output)
+        throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<Book> books = bookRepository.streamByFilter(filter, FETCH_SIZE)) {
+            Iterator<Book> iterator = books.iterator();
+
+            while (iterator.hasNext()) {
+                Book book = iterator.next();
+
+                if (format == ExportFormat.CSV) {
+                    writeCsv(writer, book);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(book));
+                }
+
+                writer.write('\n');
+                entityManager.detach(book);
+            }
+        }
+
+        writer.flush();
+    }
+
+    private void writeCsv(Writer writer, Book book) throws IOException {
+        writer.write(Long.toString(book.getId()));
+
+        for (Object value : new Object[]{book.getGenre(), book.getAuthor(), book.getImage(),
+            book.getTitle(), book.getSubtitle(), book.getPublisher(), book.getYear(),
+            book.getPages(), book.getIsbn()}) {
+            writer.write(',');
+
+            if (value != null) {
+                writer.write(csvField(value.toString()));
+            }
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+            && value.indexOf('\r') < 0) {
+            return value;
+        }
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,297 @@
+package wolox.training.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import wolox.training.dto.FacetsDTO;
+import wolox.training.events.BookEvent;
+import wolox.training.facets.FacetCounts;
+import wolox.training.facets.HyperLogLog;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookFilter;
+import wolox.training.repositories.BookRepository;
+
+/**
+ * Counts of {@link Book}s per genre, publisher and year. The counts of the whole catalog are
+ * built when the application starts and then kept up to date with the {@link BookEvent}s, so they
+ * never reach the database; filtered counts are grouped by the database. The distinct authors
+ * and publishers are estimated with HyperLogLog sketches of the whole catalog, which keep
+ * counting the values of deleted books until the next rebuild. When the counts are stale they are
+ * rebuilt in the background, and the requests are served the previous counts meanwhile.
+ *
+ * @author M. G.
+ */
+
+@Service
+public class BookFacetService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookFacetService.class);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final Object rebuildLock = new Object();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private ExecutorService rebuilder;
+
+    private volatile Counts counts = new Counts();
+    private volatile boolean stale = true;
+    private boolean rebuilding;
+    private final List<BookEvent> eventsDuringRebuild = new ArrayList<BookEvent>();
+
+    @PostConstruct
+    public void start() {
+        rebuilder = Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("book-facets-rebuild-"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdown();
+    }
+
+    /**
+     * Count the whole catalog again. The counts are built apart and replace the current ones when
+     * the scan ends, so the facets keep being served meanwhile. The events that arrive during the
+     * scan are queued and replayed on the new counts before they replace the current ones, skipping
+     * those whose book the scan already read at the version of the event or a later one.
+     */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                rebuilding = true;
+                eventsDuringRebuild.clear();
+            }
+
+            Counts rebuilt = new Counts();
+            ScannedVersions scanned = new ScannedVersions();
+
+            try {
+                bookRepository.scanAll(book -> {
+                    rebuilt.add(book);
+                    scanned.add(book.getId(), book.getVersion());
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    rebuilding = false;
+                    eventsDuringRebuild.clear();
+                }
+
+                throw e;
+            }
+
+            synchronized (this) {
+                boolean complete = replay(rebuilt, scanned);
+
+                rebuilding = false;
+                eventsDuringRebuild.clear();
+                counts = rebuilt;
+                stale = !complete;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookEvent(BookEvent event) {
+        if (rebuilding) {
+            eventsDuringRebuild.add(event);
+        }
+
+        if (!apply(counts, event)) {
+            stale = true;
+        }
+    }
+
+    /**
+     * Count the {@link Book}s that match a filter per genre, publisher and year.
+     *
+     * @param filter the criteria that the books must match
+     * @param limit  the maximum amount of values returned per attribute
+     * @return the counts per value, the highest first, and the distinct authors and publishers
+     *     of the whole catalog
+     */
+
+    public FacetsDTO facets(BookFilter filter, int limit) {
+        Counts current = counts;
+
+        if (!filter.isEmpty()) {
+            return new FacetsDTO(bookRepository.countByFilterGroupBy(filter, "genre", limit),
+                bookRepository.countByFilterGroupBy(filter, "publisher", limit),
+                bookRepository.countByFilterGroupBy(filter, "year", limit),
+                current.distinctAuthors.estimate(), current.distinctPublishers.estimate());
+        }
+
+        if (stale) {
+            scheduleRebuild();
+        }
+
+        return new FacetsDTO(current.genres.top(limit), current.publishers.top(limit),
+            current.years.top(limit), current.distinctAuthors.estimate(),
+            current.distinctPublishers.estimate());
+    }
+
+    /**
+     * Apply the events queued during a scan to its counts. A created book is added unless the
+     * scan read it, a deleted one is removed only if the scan read it, and an update is applied
+     * only on top of an older version than its own.
+     *
+     * @return false if an update did not carry its previous state, so the counts are stale
+     */
+
+    private boolean replay(Counts rebuilt, ScannedVersions scanned) {
+        Map<Long, Long> versions = new HashMap<Long, Long>();
+        boolean complete = true;
+
+        for (BookEvent event : eventsDuringRebuild) {
+            Book book = event.getBook();
+            Long replayed = versions.get(book.getId());
+            long counted = replayed != null ? replayed : scanned.version(book.getId());
+
+            switch (event.getType()) {
+                case CREATED:
+                    if (counted < 0) {
+                        rebuilt.add(book);
+                        versions.put(book.getId(), book.getVersion());
+                    }
+                    break;
+                case DELETED:
+                    if (counted >= 0) {
+                        rebuilt.remove(book);
+                        versions.put(book.getId(), -1L);
+                    }
+                    break;
+                default:
+                    if (counted >= 0 && counted < book.getVersion()) {
+                        complete &= apply(rebuilt, event);
+                        versions.put(book.getId(), book.getVersion());
+                    }
+            }
+        }
+
+        return complete;
+    }
+
+    /**
+     * Apply an event to some counts.
+     *
+     * @return false if the event is an update without its previous state, which is not applied
+     */
+
+    private static boolean apply(Counts counts, BookEvent event) {
+        Book book = event.getBook();
+
+        switch (event.getType()) {
+            case CREATED:
+                counts.add(book);
+                return true;
+            case DELETED:
+                counts.remove(book);
+                return true;
+            default:
+                if (!event.hasPreviousState()) {
+                    return false;
+                }
+
+                counts.genres.decrement((String) event.getPrevious("genre"));
+                counts.publishers.decrement((String) event.getPrevious("publisher"));
+                counts.years.decrement((String) event.getPrevious("year"));
+                counts.add(book);
+                return true;
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        rebuilder.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Cannot count the books again", e);
+            } finally {
+                rebuildScheduled.set(false);
+            }
+        });
+    }
+
+    /**
+     * The version of every book read by a scan. The scan reads the books by ascending id, so the
+     * ids are appended in order and found by binary search.
+     */
+
+    private static class ScannedVersions {
+
+        private long[] ids = new long[1024];
+        private long[] versions = new long[1024];
+        private int size;
+
+        private void add(long id, long version) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                versions = Arrays.copyOf(versions, size * 2);
+            }
+
+            ids[size] = id;
+            versions[size] = version;
+            size++;
+        }
+
+        /**
+         * Get the version of a book read by the scan, or -1 if the scan did not read it.
+         */
+
+        private long version(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+
+            return index < 0 ? -1 : versions[index];
+        }
+    }
+
+    private static class Counts {
+
+        private final FacetCounts genres = new FacetCounts();
+        private final FacetCounts publishers = new FacetCounts();
+        private final FacetCounts years = new FacetCounts();
+        private final HyperLogLog distinctAuthors = new HyperLogLog();
+        private final HyperLogLog distinctPublishers = new HyperLogLog();
+
+        private void add(Book book) {
+            genres.increment(book.getGenre());
+            publishers.increment(book.getPublisher());
+            years.increment(book.getYear());
+
+            if (book.getAuthor() != null) {
+                distinctAuthors.add(book.getAuthor());
+            }
+
+            if (book.getPublisher() != null) {
+                distinctPublishers.add(book.getPublisher());
+            }
+        }
+
+        private void remove(Book book) {
+            genres.decrement(book.getGenre());
+            publishers.decrement(book.getPublisher());
+            years.decrement(book.getYear());
+        }
+    }
+}
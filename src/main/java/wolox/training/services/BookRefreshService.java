@@ -0,0 +1,202 @@
+package wolox.training.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import wolox.training.dto.BookDTO;
+import wolox.training.dto.OpenLibraryBookDTO;
+import wolox.training.exceptions.OpenLibraryUnavailableException;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+
+/**
+ * Refreshes the {@link Book}s with the data of OpenLibrary. The stale books are read in pages
+ * ordered by id and each page is looked up with {@link OpenLibraryService#refreshInfoAll}, which
+ * sends its ISBNs in parallel batches bounded by the batcher and the bulkhead of OpenLibrary. The
+ * books are updated in a single transaction per page, where only the attributes that changed are
+ * written and the updates are sent to the database in JDBC batches.
+ *
+ * <p>The job runs on one node at a time through {@link JobLockService}, and the id of the last
+ * page refreshed is kept as its checkpoint, so an interrupted run resumes there.</p>
+ *
+ * @author M. G.
+ */
+
+@Service
+public class BookRefreshService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookRefreshService.class);
+
+    private static final String JOB = "book_refresh";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OpenLibraryService openLibraryService;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${books.refresh.enabled:true}")
+    private boolean enabled;
+
+    @Value("${books.refresh.staleDays:30}")
+    private long staleDays;
+
+    @Value("${books.refresh.pageSize:200}")
+    private int pageSize;
+
+    @Value("${books.refresh.pageDelayMillis:1000}")
+    private long pageDelayMillis;
+
+    @Value("${books.refresh.leaseMinutes:10}")
+    private long leaseMinutes;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    @Scheduled(cron = "${books.refresh.cron:0 0 3 * * *}")
+    public void scheduledRefresh() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            LOGGER.info("Refreshed {} books from OpenLibrary", refresh());
+        } catch (OpenLibraryUnavailableException e) {
+            LOGGER.warn("OpenLibrary is unavailable, the refresh of the books will resume later");
+        }
+    }
+
+    /**
+     * Refresh the stale books, from the checkpoint of the last run to the end of the catalog.
+     * Nothing is done when another node is running the job.
+     *
+     * @return the amount of books refreshed
+     * @throws OpenLibraryUnavailableException when OpenLibrary fails, after the checkpoint of the
+     *                                         last page refreshed is saved
+     */
+
+    public int refresh() {
+        Duration lease = Duration.ofMinutes(leaseMinutes);
+
+        if (!jobLockService.acquire(JOB, owner, lease)) {
+            return 0;
+        }
+
+        int refreshed = 0;
+
+        try {
+            Instant staleBefore = Instant.now().minus(Duration.ofDays(staleDays));
+            long after = jobLockService.checkpoint(JOB);
+            List<BookDTO> page;
+
+            while (!(page = bookRepository.findStaleAfter(after, staleBefore,
+                PageRequest.of(0, pageSize))).isEmpty()) {
+                refreshed += refresh(page);
+                after = page.get(page.size() - 1).getId();
+
+                if (!jobLockService.checkpoint(JOB, owner, after, lease) || !pause()) {
+                    return refreshed;
+                }
+            }
+
+            jobLockService.checkpoint(JOB, owner, 0, lease);
+        } finally {
+            jobLockService.release(JOB, owner);
+        }
+
+        return refreshed;
+    }
+
+    /**
+     * Refresh a page of books. The page is a projection, and the books are loaded only once, in
+     * the transaction that updates them.
+     */
+
+    private int refresh(List<BookDTO> page) {
+        Map<String, OpenLibraryBookDTO> infos = openLibraryService.refreshInfoAll(page.stream()
+            .map(BookDTO::getIsbn)
+            .collect(Collectors.toList()));
+        List<Long> ids = page.stream()
+            .map(BookDTO::getId)
+            .collect(Collectors.toList());
+        Instant now = Instant.now();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            for (Book book : bookRepository.findAllById(ids)) {
+                OpenLibraryBookDTO info = infos.get(book.getIsbn());
+
+                if (info != null) {
+                    apply(book, info);
+                }
+
+                book.setRefreshedAt(now);
+            }
+
+            return null;
+        });
+
+        return page.size();
+    }
+
+    /**
+     * Copy the attributes of OpenLibrary that changed, leaving alone the ones it does not know.
+     */
+
+    private void apply(Book book, OpenLibraryBookDTO info) {
+        update(book.getAuthor(), info.getJoinedAuthors(), book::setAuthor);
+        update(book.getTitle(), info.getTitle(), book::setTitle);
+        update(book.getSubtitle(), info.getSubtitle(), book::setSubtitle);
+        update(book.getPublisher(), info.getJoinedPublishers(), book::setPublisher);
+        update(book.getYear(), info.getPublishDate(), book::setYear);
+
+        if (info.getCover() != null) {
+            update(book.getImage(), info.getCover().getSmall(), book::setImage);
+        }
+
+        if (info.getNumberOfPages() != null && info.getNumberOfPages() > 0
+            && !info.getNumberOfPages().equals(book.getPages())) {
+            book.setPages(info.getNumberOfPages());
+        }
+    }
+
+    private static void update(String current, String fresh, Consumer<String> setter) {
+        if (fresh != null && !fresh.isEmpty() && !fresh.equals(current)) {
+            setter.accept(fresh);
+        }
+    }
+
+    /**
+     * Wait between pages, leaving room in the rate limit of OpenLibrary for the searches of the
+     * users.
+     *
+     * @return false if the thread was interrupted, so the job must stop
+     */
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pageDelayMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
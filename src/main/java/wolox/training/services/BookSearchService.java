@@ -0,0 +1,104 @@
+package wolox.training.services;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import wolox.training.events.BookEvent;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+import wolox.training.search.InvertedIndex;
+import wolox.training.search.SearchHit;
+
+/**
+ * Full-text search over the title, subtitle, author and publisher of the {@link Book}s. The index
+ * is built when the application starts and then kept up to date with the {@link BookEvent}s, so
+ * only the books found are loaded, from the second-level cache when they are cached.
+ *
+ * <p>The events that arrive while the index is rebuilt win over the rows scanned, which may have
+ * been read before the change.</p>
+ *
+ * @author M. G.
+ */
+
+@Service
+public class BookSearchService {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    /**
+     * The books changed by an event during the current rebuild, guarded by this service.
+     */
+
+    private final Set<Long> changedDuringRebuild = new HashSet<Long>();
+    private boolean rebuilding;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        }
+
+        try {
+            bookRepository.scanAll(book -> {
+                synchronized (this) {
+                    if (!changedDuringRebuild.contains(book.getId())) {
+                        index(book);
+                    }
+                }
+            });
+        } finally {
+            synchronized (this) {
+                rebuilding = false;
+                changedDuringRebuild.clear();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookEvent(BookEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getBook().getId());
+        }
+
+        if (event.getType() == BookEvent.Type.DELETED) {
+            index.remove(event.getBook().getId());
+        } else {
+            index(event.getBook());
+        }
+    }
+
+    /**
+     * Find the {@link Book}s most relevant to a text.
+     *
+     * @param query the words to search
+     * @param limit the maximum amount of books returned
+     * @return the books found, the most relevant first
+     */
+
+    public List<Book> search(String query, int limit) {
+        List<SearchHit> hits = index.search(query, limit);
+        List<Long> ids = new ArrayList<Long>(hits.size());
+
+        for (SearchHit hit : hits) {
+            ids.add(hit.getId());
+        }
+
+        // A book deleted after the search is skipped
+        return bookRepository.findAllByIdInOrder(ids);
+    }
+
+    private void index(Book book) {
+        index.put(book.getId(), book.getTitle(), book.getSubtitle(), book.getAuthor(),
+            book.getPublisher());
+    }
+}
@@ -0,0 +1,177 @@
+package wolox.training.services;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import wolox.training.events.BookEvent;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookFilter;
+import wolox.training.repositories.BookRepository;
+import wolox.training.search.TrigramIndex;
+
+/**
+ * Serves the substring criteria on the genre and the title of the {@link Book}s from trigram
+ * indexes, so that they do not need a LIKE scan over the whole table.
+ *
+ * @author M. G.
+ */
+
+@Service
+public class BookTrigramService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BookTrigramService.class);
+
+    /**
+     * Above this amount of candidates a LIKE is cheaper than sending all the ids to the database.
+     */
+    private static final int MAX_CANDIDATES = 10000;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final TrigramIndex genres = new TrigramIndex();
+    private final TrigramIndex titles = new TrigramIndex();
+    private volatile boolean ready;
+    private ExecutorService indexer;
+
+    /**
+     * The books changed by an event during the current rebuild, guarded by this service.
+     */
+
+    private final Set<Long> changedDuringRebuild = new HashSet<Long>();
+    private boolean rebuilding;
+
+    @PostConstruct
+    public void start() {
+        indexer = Executors.newSingleThreadExecutor(
+            new CustomizableThreadFactory("book-trigram-index-"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        indexer.shutdown();
+    }
+
+    /**
+     * Index the whole catalog in the background once the application starts. The substring
+     * criteria are applied by the database until it ends.
+     */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        indexer.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Cannot index the books, their substrings are searched by the database",
+                    e);
+            }
+        });
+    }
+
+    /**
+     * Index the whole catalog. A book changed by an event during the scan is not indexed by the
+     * scan, which may have read it before the change.
+     */
+
+    public void rebuild() {
+        synchronized (this) {
+            rebuilding = true;
+            changedDuringRebuild.clear();
+        }
+
+        try {
+            bookRepository.scanAll(book -> {
+                synchronized (this) {
+                    if (!changedDuringRebuild.contains(book.getId())) {
+                        index(book);
+                    }
+                }
+            });
+        } finally {
+            synchronized (this) {
+                rebuilding = false;
+                changedDuringRebuild.clear();
+            }
+        }
+
+        ready = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookEvent(BookEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getBook().getId());
+        }
+
+        if (event.getType() == BookEvent.Type.DELETED) {
+            genres.remove(event.getBook().getId());
+            titles.remove(event.getBook().getId());
+        } else {
+            index(event.getBook());
+        }
+    }
+
+    /**
+     * Replace the substring criteria of a filter by the ids of the {@link Book}s that match them.
+     * The filter is returned as it is when the indexes cannot serve all of its substring
+     * criteria, and then they are applied by the database.
+     *
+     * @param filter the criteria that the books must match
+     * @return an equivalent filter
+     */
+
+    public BookFilter narrow(BookFilter filter) {
+        boolean byGenre = filter.getGenre() != null && !filter.getGenre().isEmpty();
+        boolean byTitle = filter.getTitleContains() != null && !filter.getTitleContains().isEmpty();
+
+        if (!ready || (!byGenre && !byTitle)) {
+            return filter;
+        }
+
+        long[] genreIds = byGenre ? genres.find(filter.getGenre()) : null;
+        long[] titleIds = byTitle ? titles.find(filter.getTitleContains()) : null;
+
+        if ((byGenre && genreIds == null) || (byTitle && titleIds == null)) {
+            return filter;
+        }
+
+        Set<Long> candidates = toSet(byGenre ? genreIds : titleIds);
+
+        if (byGenre && byTitle) {
+            candidates.retainAll(toSet(titleIds));
+        }
+
+        if (candidates.size() > MAX_CANDIDATES) {
+            return filter;
+        }
+
+        return filter.withCandidates(candidates);
+    }
+
+    private Set<Long> toSet(long[] ids) {
+        Set<Long> set = new HashSet<Long>();
+
+        for (long id : ids) {
+            set.add(id);
+        }
+
+        return set;
+    }
+
+    private void index(Book book) {
+        genres.put(book.getId(), book.getGenre());
+        titles.put(book.getId(), book.getTitle());
+    }
+}
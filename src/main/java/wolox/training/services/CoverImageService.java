@@ -0,0 +1,244 @@
+package wolox.training.services;
+
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import wolox.training.dto.CoverSize;
+import wolox.training.exceptions.CoverNotFoundException;
+import wolox.training.exceptions.OpenLibraryUnavailableException;
+import wolox.training.models.Book;
+import wolox.training.store.CoverStore;
+import wolox.training.store.CoverStore.CoverFile;
+
+/**
+ * Covers of the {@link Book}s, downloaded once from OpenLibrary and kept on local disk. The
+ * covers are served from the disk without copying them through the heap: Tomcat sends the large
+ * ones with sendfile and the rest are transferred from their file channel.
+ *
+ * <p>The image of a book is set by the clients, so covers are only downloaded from the configured
+ * hosts and redirects are not followed. Otherwise any client could make the server fetch and
+ * return internal addresses.</p>
+ *
+ * @author M. G.
+ */
+
+@Component
+public class CoverImageService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * The size below which Tomcat does not use sendfile by default.
+     */
+
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private static final int MAX_EXTENSION_LENGTH = 4;
+
+    @Autowired
+    private RestTemplate coverRestTemplate;
+
+    @Value("${covers.allowedHosts:covers.openlibrary.org}")
+    private String[] allowedHosts;
+
+    @Value("${covers.directory:data/covers}")
+    private String directory;
+
+    @Value("${covers.maxBytes:536870912}")
+    private long maxBytes;
+
+    private final ConcurrentMap<String, CompletableFuture<CoverFile>> inFlight =
+        new ConcurrentHashMap<String, CompletableFuture<CoverFile>>();
+
+    private CoverStore store;
+    private Set<String> hosts;
+
+    @PostConstruct
+    public void open() throws IOException {
+        store = CoverStore.open(Paths.get(directory), maxBytes);
+        hosts = new HashSet<String>();
+
+        Arrays.stream(allowedHosts).map(host -> host.trim().toLowerCase(Locale.ROOT))
+            .filter(host -> !host.isEmpty())
+            .forEach(hosts::add);
+    }
+
+    /**
+     * Return the cover of a book, downloading it when it is not on disk. Concurrent requests of
+     * the same cover wait for a single download.
+     *
+     * @param book the book
+     * @param size the size of the cover
+     * @return the cover on disk
+     * @throws CoverNotFoundException          when the book has no cover in an allowed host
+     * @throws OpenLibraryUnavailableException when the cover cannot be downloaded
+     */
+
+    public CoverFile cover(Book book, CoverSize size) {
+        String url = size.url(book.getImage());
+
+        if (!isAllowed(url)) {
+            throw new CoverNotFoundException();
+        }
+
+        String key = Hashing.murmur3_128().hashString(url, StandardCharsets.UTF_8).toString();
+        CoverFile cover = store.get(key);
+
+        if (cover != null && Files.isRegularFile(cover.getPath())) {
+            return cover;
+        }
+
+        if (cover != null) {
+            // The file was deleted under the store, so it is downloaded again
+            store.remove(key, cover);
+        }
+
+        CompletableFuture<CoverFile> download = new CompletableFuture<CoverFile>();
+        CompletableFuture<CoverFile> running = inFlight.putIfAbsent(key, download);
+
+        if (running != null) {
+            return join(running);
+        }
+
+        try {
+            cover = download(key, url);
+            download.complete(cover);
+
+            return cover;
+        } catch (RuntimeException e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, download);
+        }
+    }
+
+    /**
+     * Write a cover to a response, with its content type and length.
+     *
+     * @param cover    the cover on disk
+     * @param request  the request of the cover
+     * @param response the response where the cover is written
+     * @throws IOException when the cover cannot be read or written
+     */
+
+    public void send(CoverFile cover, HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+        response.setContentType(MediaTypeFactory
+            .getMediaType(cover.getPath().getFileName().toString())
+            .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(cover.getLength());
+
+        if (cover.getLength() >= SENDFILE_MIN_BYTES
+            && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, cover.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, cover.getLength());
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(cover.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+
+            while (position < cover.getLength()) {
+                position += channel.transferTo(position, cover.getLength() - position, out);
+            }
+        }
+    }
+
+    private CoverFile download(String key, String url) {
+        try {
+            return coverRestTemplate.execute(url, HttpMethod.GET, null, response -> {
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    throw new CoverNotFoundException();
+                }
+
+                try {
+                    return store.put(key, extension(url), response.getBody());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (HttpClientErrorException.NotFound e) {
+            throw new CoverNotFoundException();
+        } catch (RestClientException e) {
+            throw new OpenLibraryUnavailableException();
+        }
+    }
+
+    /**
+     * Whether a URL is an http(s) URL of an allowed host, on its default port and without user
+     * info.
+     */
+
+    private boolean isAllowed(String url) {
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme();
+
+            return ("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))
+                && uri.getHost() != null && uri.getUserInfo() == null && uri.getPort() == -1
+                && hosts.contains(uri.getHost().toLowerCase(Locale.ROOT));
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    private CoverFile join(CompletableFuture<CoverFile> download) {
+        try {
+            return download.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    private static String extension(String url) {
+        int slash = url.lastIndexOf('/');
+        int dot = url.lastIndexOf('.');
+        String extension = url.substring(dot + 1).toLowerCase(Locale.ROOT);
+
+        if (dot < slash || extension.isEmpty() || extension.length() > MAX_EXTENSION_LENGTH
+            || !extension.chars().allMatch(Character::isLetterOrDigit)) {
+            return "";
+        }
+
+        return "." + extension;
+    }
+}
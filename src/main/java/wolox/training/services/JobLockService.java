@@ -0,0 +1,89 @@
+package wolox.training.services;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Locks of the scheduled jobs, kept in the job_lock table so that only one node of the cluster
+ * runs each job. A lock is taken with a conditional update, which the database applies to a
+ * single node, and it expires after a lease, so a node that dies does not hold it forever. The
+ * lock also keeps a checkpoint where the job stopped, which extends the lease when it moves.
+ *
+ * @author M. G.
+ */
+
+@Service
+public class JobLockService {
+
+    private static final String ACQUIRE = "UPDATE job_lock SET locked_by = ?, locked_until = ?"
+        + " WHERE name = ? AND (locked_until IS NULL OR locked_until < ? OR locked_by = ?)";
+
+    private static final String CHECKPOINT = "UPDATE job_lock SET checkpoint_id = ?,"
+        + " locked_until = ? WHERE name = ? AND locked_by = ?";
+
+    private static final String RELEASE = "UPDATE job_lock SET locked_by = NULL,"
+        + " locked_until = NULL WHERE name = ? AND locked_by = ?";
+
+    private static final String READ_CHECKPOINT =
+        "SELECT checkpoint_id FROM job_lock WHERE name = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Take the lock of a job, unless another node holds it.
+     *
+     * @param job   the name of the job
+     * @param owner the node that takes the lock
+     * @param lease how long the lock is held unless it is extended
+     * @return true if the lock was taken
+     */
+
+    public boolean acquire(String job, String owner, Duration lease) {
+        Instant now = Instant.now();
+
+        return jdbcTemplate.update(ACQUIRE, owner, Timestamp.from(now.plus(lease)), job,
+            Timestamp.from(now), owner) == 1;
+    }
+
+    /**
+     * Read where a job stopped.
+     *
+     * @param job the name of the job
+     * @return the checkpoint of the job
+     */
+
+    public long checkpoint(String job) {
+        return jdbcTemplate.queryForObject(READ_CHECKPOINT, Long.class, job);
+    }
+
+    /**
+     * Save where a job is and extend its lock.
+     *
+     * @param job        the name of the job
+     * @param owner      the node that holds the lock
+     * @param checkpoint where the job is
+     * @param lease      how long the lock is held from now on
+     * @return false if the lock is no longer held by the owner, so the job must stop
+     */
+
+    public boolean checkpoint(String job, String owner, long checkpoint, Duration lease) {
+        return jdbcTemplate.update(CHECKPOINT, checkpoint,
+            Timestamp.from(Instant.now().plus(lease)), job, owner) == 1;
+    }
+
+    /**
+     * Release the lock of a job, if the owner holds it.
+     *
+     * @param job   the name of the job
+     * @param owner the node that holds the lock
+     */
+
+    public void release(String job, String owner) {
+        jdbcTemplate.update(RELEASE, job, owner);
+    }
+}
@@ -0,0 +1,184 @@
+package wolox.training.services;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import wolox.training.dto.OpenLibraryBookDTO;
+
+/**
+ * Groups the lookups of OpenLibrary that arrive close in time into a single request. A batch is
+ * sent when it reaches the maximum amount of ISBNs or when its oldest lookup has waited the
+ * maximum delay, whatever happens first, and then every lookup gets its own book back.
+ *
+ * @author M. G.
+ */
+
+@Component
+public class OpenLibraryBatcher {
+
+    @Autowired
+    private OpenLibraryClient openLibraryClient;
+
+    @Value("${openLibrary.batch.maxSize:50}")
+    private int maxSize;
+
+    @Value("${openLibrary.batch.maxDelayMillis:5}")
+    private long maxDelayMillis;
+
+    @Value("${openLibrary.batch.threads:4}")
+    private int threads;
+
+    private ScheduledExecutorService executor;
+    private final Map<String, CompletableFuture<OpenLibraryBookDTO>> pending =
+        new LinkedHashMap<String, CompletableFuture<OpenLibraryBookDTO>>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newScheduledThreadPool(threads,
+            new CustomizableThreadFactory("open-library-batch-"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * Look up a book, waiting for the batch that contains it.
+     *
+     * @param isbn the ISBN of the book
+     * @return the book, or null when OpenLibrary does not know the ISBN
+     */
+
+    public OpenLibraryBookDTO lookup(String isbn) {
+        return await(submit(isbn));
+    }
+
+    /**
+     * Look up many books, which are sent in as few batches as possible.
+     *
+     * @param isbns the ISBNs of the books
+     * @return the books that OpenLibrary knows by ISBN
+     */
+
+    public Map<String, OpenLibraryBookDTO> lookupAll(Collection<String> isbns) {
+        Map<String, CompletableFuture<OpenLibraryBookDTO>> lookups =
+            new LinkedHashMap<String, CompletableFuture<OpenLibraryBookDTO>>();
+
+        for (String isbn : isbns) {
+            lookups.put(isbn, submit(isbn));
+        }
+
+        Map<String, OpenLibraryBookDTO> books = new HashMap<String, OpenLibraryBookDTO>();
+
+        lookups.forEach((isbn, lookup) -> {
+            OpenLibraryBookDTO book = await(lookup);
+
+            if (book != null) {
+                books.put(isbn, book);
+            }
+        });
+
+        return books;
+    }
+
+    /**
+     * Add an ISBN to the current batch. Lookups of an ISBN that is already waiting share its
+     * result.
+     *
+     * @param isbn the ISBN of the book
+     * @return the book, or null when OpenLibrary does not know the ISBN, once the batch is sent
+     */
+
+    public synchronized CompletableFuture<OpenLibraryBookDTO> submit(String isbn) {
+        CompletableFuture<OpenLibraryBookDTO> lookup = pending.get(isbn);
+
+        if (lookup != null) {
+            return lookup;
+        }
+
+        lookup = new CompletableFuture<OpenLibraryBookDTO>();
+        pending.put(isbn, lookup);
+
+        if (pending.size() == maxSize) {
+            executor.execute(this::send);
+        } else if (scheduledFlush == null) {
+            scheduledFlush = executor.schedule(this::send, maxDelayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        return lookup;
+    }
+
+    private void send() {
+        Map<String, CompletableFuture<OpenLibraryBookDTO>> batch = drain();
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<String, OpenLibraryBookDTO> books = openLibraryClient.fetch(batch.keySet());
+            batch.forEach((isbn, lookup) -> lookup.complete(books.get(isbn)));
+        } catch (RuntimeException e) {
+            batch.values().forEach(lookup -> lookup.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Take the oldest lookups, up to the maximum size of a batch, and schedule the sending of the
+     * ones left.
+     */
+
+    private synchronized Map<String, CompletableFuture<OpenLibraryBookDTO>> drain() {
+        Map<String, CompletableFuture<OpenLibraryBookDTO>> batch =
+            new LinkedHashMap<String, CompletableFuture<OpenLibraryBookDTO>>();
+        Iterator<Map.Entry<String, CompletableFuture<OpenLibraryBookDTO>>> lookups =
+            pending.entrySet().iterator();
+
+        while (lookups.hasNext() && batch.size() < maxSize) {
+            Map.Entry<String, CompletableFuture<OpenLibraryBookDTO>> lookup = lookups.next();
+            batch.put(lookup.getKey(), lookup.getValue());
+            lookups.remove();
+        }
+
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+
+        if (pending.size() >= maxSize) {
+            executor.execute(this::send);
+        } else if (!pending.isEmpty()) {
+            scheduledFlush = executor.schedule(this::send, maxDelayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        return batch;
+    }
+
+    private OpenLibraryBookDTO await(CompletableFuture<OpenLibraryBookDTO> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package wolox.training.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import wolox.training.dto.OpenLibraryBookDTO;
+
+/**
+ * Bounded cache of the answers of OpenLibrary by ISBN. Found books are kept for a long time, and
+ * ISBNs that OpenLibrary does not know are kept for a shorter one, so retrying a wrong ISBN does
+ * not reach the upstream again. The eviction is W-TinyLFU, and the hits, misses and evictions are
+ * published as the {@code cache.*} metrics of the {@code openLibrary} cache.
+ *
+ * @author M. G.
+ */
+
+@Component
+public class OpenLibraryCache {
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${openLibrary.cache.maximumSize:10000}")
+    private long maximumSize;
+
+    @Value("${openLibrary.cache.foundTtlMinutes:1440}")
+    private long foundTtlMinutes;
+
+    @Value("${openLibrary.cache.notFoundTtlMinutes:10}")
+    private long notFoundTtlMinutes;
+
+    private AsyncCache<String, Optional<OpenLibraryBookDTO>> answers;
+    private Cache<String, Optional<OpenLibraryBookDTO>> cache;
+
+    @PostConstruct
+    public void build() {
+        answers = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new AnswerExpiry(TimeUnit.MINUTES.toNanos(foundTtlMinutes),
+                TimeUnit.MINUTES.toNanos(notFoundTtlMinutes)))
+            .recordStats()
+            .buildAsync();
+        cache = answers.synchronous();
+
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "openLibrary");
+        }
+    }
+
+    /**
+     * Return the cached answer for an ISBN, or compute and cache it. A null answer means that
+     * OpenLibrary does not know the ISBN, and it is cached as well.
+     *
+     * @param isbn   the ISBN of the book
+     * @param lookup how to ask OpenLibrary for the book
+     * @return the book, or null when it does not exist
+     */
+
+    public OpenLibraryBookDTO get(String isbn, Function<String, OpenLibraryBookDTO> lookup) {
+        return cache.get(isbn, key -> Optional.ofNullable(lookup.apply(key))).orElse(null);
+    }
+
+    /**
+     * Return the cached answer for an ISBN without blocking, or start computing it. Lookups of an
+     * ISBN that is being computed share the same answer, and a failed lookup is not cached.
+     *
+     * @param isbn   the ISBN of the book
+     * @param lookup how to ask OpenLibrary for the book, completed with null when it does not
+     *               exist
+     * @return the book, or null when it does not exist
+     */
+
+    public CompletableFuture<OpenLibraryBookDTO> getAsync(String isbn,
+        Function<String, CompletableFuture<OpenLibraryBookDTO>> lookup) {
+        return answers
+            .get(isbn, (key, executor) -> lookup.apply(key).thenApply(Optional::ofNullable))
+            .thenApply(answer -> answer.orElse(null));
+    }
+
+    /**
+     * Return the cached answers for many ISBNs, computing the missing ones at once.
+     *
+     * @param isbns  the ISBNs of the books
+     * @param lookup how to ask OpenLibrary for the books that are not cached, by ISBN
+     * @return the books that exist by ISBN
+     */
+
+    public Map<String, OpenLibraryBookDTO> getAll(Collection<String> isbns,
+        Function<List<String>, Map<String, OpenLibraryBookDTO>> lookup) {
+        Map<String, Optional<OpenLibraryBookDTO>> answers = cache.getAll(isbns, keys -> {
+            List<String> missing = new ArrayList<String>();
+            keys.forEach(missing::add);
+
+            Map<String, OpenLibraryBookDTO> found = lookup.apply(missing);
+            Map<String, Optional<OpenLibraryBookDTO>> loaded =
+                new HashMap<String, Optional<OpenLibraryBookDTO>>();
+
+            for (String isbn : missing) {
+                loaded.put(isbn, Optional.ofNullable(found.get(isbn)));
+            }
+
+            return loaded;
+        });
+        Map<String, OpenLibraryBookDTO> books = new HashMap<String, OpenLibraryBookDTO>();
+
+        answers.forEach((isbn, answer) -> answer.ifPresent(book -> books.put(isbn, book)));
+
+        return books;
+    }
+
+    public void invalidate(String isbn) {
+        cache.invalidate(isbn);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static final class AnswerExpiry
+        implements Expiry<String, Optional<OpenLibraryBookDTO>> {
+
+        private final long foundNanos;
+        private final long notFoundNanos;
+
+        AnswerExpiry(long foundNanos, long notFoundNanos) {
+            this.foundNanos = foundNanos;
+            this.notFoundNanos = notFoundNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String isbn, Optional<OpenLibraryBookDTO> answer,
+            long currentTime) {
+            return answer.isPresent() ? foundNanos : notFoundNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String isbn, Optional<OpenLibraryBookDTO> answer,
+            long currentTime, long currentDuration) {
+            return expireAfterCreate(isbn, answer, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String isbn, Optional<OpenLibraryBookDTO> answer,
+            long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package wolox.training.services;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import wolox.training.dto.OpenLibraryBookDTO;
+import wolox.training.exceptions.OpenLibraryUnavailableException;
+
+/**
+ * Requests to the books API of OpenLibrary.
+ *
+ * @author M. G.
+ */
+
+@Component
+public class OpenLibraryClient {
+
+    private static final String BIBKEY_PREFIX = "ISBN:";
+
+    @Autowired
+    private RestTemplate openLibraryRestTemplate;
+
+    @Autowired
+    private CircuitBreaker openLibraryCircuitBreaker;
+
+    @Autowired
+    private Bulkhead openLibraryBulkhead;
+
+    @Autowired
+    private RateLimiter openLibraryRateLimiter;
+
+    @Value("${openLibrary.baseUrl}")
+    private String baseUrl;
+
+    /**
+     * Look up many books in a single request. The request goes through the circuit breaker, the
+     * bulkhead and the rate limiter of OpenLibrary, and fails fast when any of them rejects it.
+     *
+     * @param isbns the ISBNs of the books
+     * @return the books that OpenLibrary knows by ISBN
+     * @throws OpenLibraryUnavailableException when the request fails or is not allowed
+     */
+
+    public Map<String, OpenLibraryBookDTO> fetch(Collection<String> isbns) {
+        Supplier<Map<String, OpenLibraryBookDTO>> request = () -> request(isbns);
+
+        try {
+            return CircuitBreaker.decorateSupplier(openLibraryCircuitBreaker,
+                Bulkhead.decorateSupplier(openLibraryBulkhead,
+                    RateLimiter.decorateSupplier(openLibraryRateLimiter, request))).get();
+        } catch (RestClientException | CallNotPermittedException | BulkheadFullException
+            | RequestNotPermitted e) {
+            throw new OpenLibraryUnavailableException();
+        }
+    }
+
+    private Map<String, OpenLibraryBookDTO> request(Collection<String> isbns) {
+        String url = baseUrl + "/api/books?bibkeys={bibkeys}&format=json&jscmd=data";
+        String bibkeys = isbns.stream()
+            .map(isbn -> BIBKEY_PREFIX + isbn)
+            .collect(Collectors.joining(","));
+
+        Map<String, OpenLibraryBookDTO> res = openLibraryRestTemplate.execute(url,
+            HttpMethod.GET, null, response -> OpenLibraryResponseParser.parse(response.getBody()),
+            bibkeys);
+        Map<String, OpenLibraryBookDTO> books = new HashMap<String, OpenLibraryBookDTO>();
+
+        if (res != null) {
+            res.forEach((bibkey, book) -> {
+                if (bibkey.startsWith(BIBKEY_PREFIX)) {
+                    books.put(bibkey.substring(BIBKEY_PREFIX.length()), book);
+                }
+            });
+        }
+
+        return books;
+    }
+}
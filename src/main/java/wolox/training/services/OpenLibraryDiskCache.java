@@ -0,0 +1,134 @@
+package wolox.training.services;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import wolox.training.dto.OpenLibraryBookDTO;
+import wolox.training.store.AppendOnlyStore;
+
+/**
+ * Copy on disk of the books found in OpenLibrary, so that they are not requested again after a
+ * restart. The books are kept as JSON in an {@link AppendOnlyStore}, which is compacted in the
+ * background once enough of it is garbage. The disk is only an optimization: when it fails the
+ * books are requested to OpenLibrary as if they were not stored.
+ *
+ * @author M. G.
+ */
+
+@Component
+public class OpenLibraryDiskCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpenLibraryDiskCache.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Value("${openLibrary.diskCache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${openLibrary.diskCache.directory:data/open-library}")
+    private String directory;
+
+    @Value("${openLibrary.diskCache.initialCapacity:65536}")
+    private int initialCapacity;
+
+    @Value("${openLibrary.diskCache.compactionGarbageRatio:0.5}")
+    private double compactionGarbageRatio;
+
+    @Value("${openLibrary.diskCache.compactionCheckMinutes:10}")
+    private long compactionCheckMinutes;
+
+    private AppendOnlyStore store;
+    private ScheduledExecutorService compactor;
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            store = AppendOnlyStore.open(Paths.get(directory), initialCapacity);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Cannot open the stored books, they are requested to OpenLibrary", e);
+            return;
+        }
+
+        compactor = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("open-library-compactor-"));
+        compactor.scheduleWithFixedDelay(this::compactIfNeeded, compactionCheckMinutes,
+            compactionCheckMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (store != null) {
+            compactor.shutdown();
+            store.close();
+        }
+    }
+
+    /**
+     * Return the stored book of an ISBN.
+     *
+     * @param isbn the ISBN of the book
+     * @return the book, or null when it is not stored
+     */
+
+    public OpenLibraryBookDTO get(String isbn) {
+        if (store == null) {
+            return null;
+        }
+
+        try {
+            byte[] json = store.get(isbn);
+
+            return json == null ? null : MAPPER.readValue(json, OpenLibraryBookDTO.class);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Cannot read the stored book of ISBN {}", isbn, e);
+            return null;
+        }
+    }
+
+    /**
+     * Store the book of an ISBN. Nothing is stored for the books that OpenLibrary does not know.
+     *
+     * @param isbn the ISBN of the book
+     * @param book the book, or null
+     */
+
+    public void put(String isbn, OpenLibraryBookDTO book) {
+        if (store == null || book == null) {
+            return;
+        }
+
+        try {
+            store.put(isbn, MAPPER.writeValueAsBytes(book));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Cannot store the book of ISBN {}", isbn, e);
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (store.garbageRatio() < compactionGarbageRatio) {
+            return;
+        }
+
+        try {
+            store.compact();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Cannot compact the stored books", e);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package wolox.training.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import wolox.training.dto.OpenLibraryBookDTO;
+import wolox.training.dto.OpenLibraryCoverDTO;
+
+/**
+ * Reads the answer of the books API of OpenLibrary token by token. Only the fields of
+ * {@link OpenLibraryBookDTO} are read, everything else (subjects, excerpts, links, identifiers and
+ * so on) is skipped without being built, and the names of the authors and the publishers are
+ * joined while they are read.
+ *
+ * @author M. G.
+ */
+
+public final class OpenLibraryResponseParser {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final String SEPARATOR = ",";
+
+    private OpenLibraryResponseParser() {
+    }
+
+    /**
+     * Read the books of an answer.
+     *
+     * @param body the JSON object of books by bibkey
+     * @return the books by bibkey
+     * @throws IOException when the body cannot be read or it is not JSON
+     */
+
+    public static Map<String, OpenLibraryBookDTO> parse(InputStream body) throws IOException {
+        Map<String, OpenLibraryBookDTO> books = new HashMap<String, OpenLibraryBookDTO>();
+
+        try (JsonParser parser = FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return books;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String bibkey = parser.getCurrentName();
+
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    books.put(bibkey, book(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return books;
+    }
+
+    private static OpenLibraryBookDTO book(JsonParser parser) throws IOException {
+        OpenLibraryBookDTO book = new OpenLibraryBookDTO();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+
+            switch (field) {
+                case "title":
+                    book.setTitle(text(parser));
+                    break;
+                case "subtitle":
+                    book.setSubtitle(text(parser));
+                    break;
+                case "publish_date":
+                    book.setPublishDate(text(parser));
+                    break;
+                case "number_of_pages":
+                    book.setNumberOfPages(number(parser));
+                    break;
+                case "authors":
+                    book.setJoinedAuthors(names(parser));
+                    break;
+                case "publishers":
+                    book.setJoinedPublishers(names(parser));
+                    break;
+                case "cover":
+                    book.setCover(cover(parser));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        return book;
+    }
+
+    private static OpenLibraryCoverDTO cover(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+
+        OpenLibraryCoverDTO cover = new OpenLibraryCoverDTO();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+
+            if ("small".equals(field)) {
+                cover.setSmall(text(parser));
+            } else if ("medium".equals(field)) {
+                cover.setMedium(text(parser));
+            } else if ("large".equals(field)) {
+                cover.setLarge(text(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return cover;
+    }
+
+    /**
+     * Join the names of an array of objects, like the authors or the publishers.
+     */
+
+    private static String names(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+
+        StringBuilder names = new StringBuilder();
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+
+                if ("name".equals(field) && parser.currentToken() == JsonToken.VALUE_STRING) {
+                    if (names.length() > 0) {
+                        names.append(SEPARATOR);
+                    }
+
+                    names.append(parser.getText());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return names.toString();
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        if (parser.currentToken().isScalarValue()) {
+            return parser.getValueAsString();
+        }
+
+        parser.skipChildren();
+        return null;
+    }
+
+    private static Integer number(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+
+        String text = text(parser);
+
+        try {
+            return text == null ? null : Integer.valueOf(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package wolox.training.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import wolox.training.dto.OpenLibraryBookDTO;
 import wolox.training.exceptions.BookNotFoundException;
+import wolox.training.exceptions.OpenLibraryUnavailableException;
 import wolox.training.models.Book;
 import wolox.training.repositories.BookRepository;
 
@@ -21,27 +35,159 @@ public class OpenLibraryService {
     @Autowired
     private BookRepository bookRepository;
 
-    @Value("${openLibrary.baseUrl}")
-    private String baseUrl;
+    @Autowired
+    private OpenLibraryCache openLibraryCache;
+
+    @Autowired
+    private OpenLibraryDiskCache openLibraryDiskCache;
+
+    @Autowired
+    private OpenLibraryBatcher openLibraryBatcher;
+
+    private final Map<String, CompletableFuture<ResponseEntity<Book>>> inFlight =
+        new ConcurrentHashMap<String, CompletableFuture<ResponseEntity<Book>>>();
+
+    @Value("${openLibrary.persistence.threads:8}")
+    private int persistenceThreads;
+
+    @Value("${openLibrary.persistence.queueCapacity:500}")
+    private int persistenceQueueCapacity;
+
+    private ThreadPoolTaskExecutor persistenceExecutor;
 
     public OpenLibraryService() {
     }
 
+    /**
+     * The lookups and inserts of the database run on a bounded pool, apart from the request
+     * threads and the threads of the batches. When the pool and its queue are full the search is
+     * rejected with {@link OpenLibraryUnavailableException}, so no task ever runs on the caller.
+     */
+
+    @PostConstruct
+    public void start() {
+        persistenceExecutor = new ThreadPoolTaskExecutor();
+        persistenceExecutor.setCorePoolSize(persistenceThreads);
+        persistenceExecutor.setMaxPoolSize(persistenceThreads);
+        persistenceExecutor.setQueueCapacity(persistenceQueueCapacity);
+        persistenceExecutor.setThreadNamePrefix("open-library-persistence-");
+        persistenceExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void stop() {
+        persistenceExecutor.shutdown();
+    }
+
+    /**
+     * Find a book by ISBN, importing it from OpenLibrary when it is not stored yet.
+     *
+     * @param isbn the ISBN of the book
+     * @return the stored book with OK, or the imported book with CREATED
+     * @see #searchAsync(String)
+     */
+
     public ResponseEntity<Book> search(String isbn) {
-        Optional<Book> book = bookRepository.findByIsbn(isbn);
+        try {
+            return searchAsync(isbn).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Find a book by ISBN without blocking the caller, importing it from OpenLibrary when it is
+     * not stored yet. Concurrent searches of the same ISBN are coalesced: the first one looks the
+     * book up and saves it, and the others get the same result. The ISBN is normalized first,
+     * without hyphens and spaces, so every form of an ISBN is one search and one imported book.
+     *
+     * @param isbn the ISBN of the book
+     * @return the stored book with OK, or the imported book with CREATED
+     */
+
+    public CompletableFuture<ResponseEntity<Book>> searchAsync(String isbn) {
+        String normalized = normalize(isbn);
+        CompletableFuture<ResponseEntity<Book>> flight =
+            new CompletableFuture<ResponseEntity<Book>>();
+        CompletableFuture<ResponseEntity<Book>> leader = inFlight.putIfAbsent(normalized, flight);
+
+        if (leader != null) {
+            return leader;
+        }
 
-        if (book.isPresent()) {
-            return new ResponseEntity<Book>(book.get(), HttpStatus.OK);
+        lookup(normalized, isbn).whenComplete((result, error) -> {
+            if (error == null) {
+                flight.complete(result);
+            } else {
+                flight.completeExceptionally(
+                    error instanceof CompletionException ? error.getCause() : error);
+            }
+
+            inFlight.remove(normalized, flight);
+        });
+
+        return flight;
+    }
+
+    /**
+     * Look a book up by its normalized ISBN. The books created through the API may keep the ISBN
+     * as it was written, so that form is looked up too before importing the book.
+     */
+
+    private CompletableFuture<ResponseEntity<Book>> lookup(String normalized, String isbn) {
+        CompletableFuture<Optional<Book>> stored;
+
+        try {
+            stored = CompletableFuture.supplyAsync(() -> findStored(normalized, isbn),
+                this::persist);
+        } catch (OpenLibraryUnavailableException e) {
+            stored = new CompletableFuture<Optional<Book>>();
+            stored.completeExceptionally(e);
+        }
+
+        return stored.thenCompose(book -> {
+            if (book.isPresent()) {
+                return CompletableFuture.completedFuture(
+                    new ResponseEntity<Book>(book.get(), HttpStatus.OK));
+            }
+
+            return bookInfoAsync(normalized)
+                .thenApplyAsync(bookDTO -> create(normalized, bookDTO), this::persist);
+        });
+    }
+
+    private void persist(Runnable task) {
+        try {
+            persistenceExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            throw new OpenLibraryUnavailableException();
+        }
+    }
+
+    private Optional<Book> findStored(String normalized, String isbn) {
+        Optional<Book> book = bookRepository.findByIsbn(normalized);
+
+        if (!book.isPresent() && !normalized.equals(isbn)) {
+            book = bookRepository.findByIsbn(isbn);
         }
 
-        OpenLibraryBookDTO bookDTO = bookInfo(isbn);
+        return book;
+    }
 
+    private ResponseEntity<Book> create(String isbn, OpenLibraryBookDTO bookDTO) {
         if (bookDTO == null) {
             throw new BookNotFoundException();
         }
 
-        Book newBook = new Book("no genre", bookDTO.getJoinedAuthors(),
-            bookDTO.getCover().getSmall(),
+        // The books that OpenLibrary has no cover of get a placeholder, which serves no cover
+        String image = bookDTO.getCover() != null && bookDTO.getCover().getSmall() != null
+            ? bookDTO.getCover().getSmall() : "no image";
+
+        Book newBook = new Book("no genre", bookDTO.getJoinedAuthors(), image,
             bookDTO.getTitle(), bookDTO.getSubtitle(), bookDTO.getJoinedPublishers(),
             bookDTO.getPublishDate(), bookDTO.getNumberOfPages(), isbn);
 
@@ -50,15 +196,169 @@ public class OpenLibraryService {
         return new ResponseEntity<Book>(newBook, HttpStatus.CREATED);
     }
 
+    private static String normalize(String isbn) {
+        return isbn.replaceAll("[\\s-]", "").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Find many books by ISBN, importing the ones that are not stored yet. The ISBNs are
+     * normalized as in {@link #searchAsync(String)}, and the ones that are neither stored nor
+     * known by OpenLibrary are left out.
+     *
+     * @param isbns the ISBNs of the books
+     * @return the books found, in the order of the ISBNs
+     */
+
+    public List<Book> searchAll(Collection<String> isbns) {
+        Set<String> distinct = isbns.stream().map(OpenLibraryService::normalize)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<String> forms = new HashSet<String>(distinct);
+        forms.addAll(isbns);
+        Map<String, Book> stored = new HashMap<String, Book>();
+
+        for (Book book : bookRepository.findByIsbnIn(forms)) {
+            stored.putIfAbsent(normalize(book.getIsbn()), book);
+        }
+
+        List<String> missing = distinct.stream()
+            .filter(isbn -> !stored.containsKey(isbn))
+            .collect(Collectors.toList());
+
+        if (!missing.isEmpty()) {
+            bookInfoAll(missing);
+        }
+
+        List<Book> books = new ArrayList<Book>(distinct.size());
+
+        for (String isbn : distinct) {
+            Book book = stored.get(isbn);
+
+            if (book == null) {
+                try {
+                    book = search(isbn).getBody();
+                } catch (BookNotFoundException e) {
+                    continue;
+                }
+            }
+
+            books.add(book);
+        }
+
+        return books;
+    }
+
+    /**
+     * Look up a book in OpenLibrary. The answers, including the ISBNs that do not exist, are
+     * cached by {@link OpenLibraryCache}. The books missing there are read from
+     * {@link OpenLibraryDiskCache}, which survives restarts, and only then requested in batches
+     * by {@link OpenLibraryBatcher}.
+     *
+     * @param isbn the ISBN of the book
+     * @return the book, or null when OpenLibrary does not know the ISBN
+     */
+
     public OpenLibraryBookDTO bookInfo(String isbn) {
-        RestTemplate restTemplate = new RestTemplate();
-        String url = baseUrl + "/api/books?bibkeys=ISBN:{isbn}&format=json&jscmd=data";
+        return openLibraryCache.get(isbn, this::loadNow);
+    }
 
-        Map<String, OpenLibraryBookDTO> res = restTemplate.exchange(url, HttpMethod.GET, null,
-            new ParameterizedTypeReference<Map<String, OpenLibraryBookDTO>>() {
-            }, isbn).getBody();
+    /**
+     * Look up a book in OpenLibrary without blocking the caller.
+     *
+     * @param isbn the ISBN of the book
+     * @return the book, or null when OpenLibrary does not know the ISBN
+     * @see #bookInfo(String)
+     */
 
-        return res.get("ISBN:" + isbn);
+    public CompletableFuture<OpenLibraryBookDTO> bookInfoAsync(String isbn) {
+        return openLibraryCache.getAsync(isbn, this::load);
     }
-}
 
+    /**
+     * Look up many books in OpenLibrary, with as few requests as possible.
+     *
+     * @param isbns the ISBNs of the books
+     * @return the books that OpenLibrary knows by ISBN
+     */
+
+    public Map<String, OpenLibraryBookDTO> bookInfoAll(Collection<String> isbns) {
+        return openLibraryCache.getAll(isbns, this::loadAll);
+    }
+
+    /**
+     * Look up many books in OpenLibrary again, even when their answers are cached, and keep the
+     * new answers in the caches for the next lookups. The books are always requested upstream,
+     * as the point is to replace answers that may be stale.
+     *
+     * @param isbns the ISBNs of the books, in any form
+     * @return the books that OpenLibrary knows, by the ISBNs as they were given
+     * @see #bookInfoAll(Collection)
+     */
+
+    public Map<String, OpenLibraryBookDTO> refreshInfoAll(Collection<String> isbns) {
+        Set<String> normalized = isbns.stream().map(OpenLibraryService::normalize)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<String, OpenLibraryBookDTO> fetched = openLibraryBatcher.lookupAll(normalized);
+
+        fetched.forEach(openLibraryDiskCache::put);
+        normalized.forEach(openLibraryCache::invalidate);
+
+        Map<String, OpenLibraryBookDTO> books = new HashMap<String, OpenLibraryBookDTO>();
+
+        for (String isbn : isbns) {
+            OpenLibraryBookDTO book = fetched.get(normalize(isbn));
+
+            if (book != null) {
+                books.put(isbn, book);
+            }
+        }
+
+        return books;
+    }
+
+    private OpenLibraryBookDTO loadNow(String isbn) {
+        OpenLibraryBookDTO book = openLibraryDiskCache.get(isbn);
+
+        if (book == null) {
+            book = openLibraryBatcher.lookup(isbn);
+            openLibraryDiskCache.put(isbn, book);
+        }
+
+        return book;
+    }
+
+    private CompletableFuture<OpenLibraryBookDTO> load(String isbn) {
+        OpenLibraryBookDTO book = openLibraryDiskCache.get(isbn);
+
+        if (book != null) {
+            return CompletableFuture.completedFuture(book);
+        }
+
+        return openLibraryBatcher.submit(isbn).thenApply(fetched -> {
+            openLibraryDiskCache.put(isbn, fetched);
+            return fetched;
+        });
+    }
+
+    private Map<String, OpenLibraryBookDTO> loadAll(List<String> isbns) {
+        Map<String, OpenLibraryBookDTO> books = new HashMap<String, OpenLibraryBookDTO>();
+        List<String> missing = new ArrayList<String>();
+
+        for (String isbn : isbns) {
+            OpenLibraryBookDTO book = openLibraryDiskCache.get(isbn);
+
+            if (book == null) {
+                missing.add(isbn);
+            } else {
+                books.put(isbn, book);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, OpenLibraryBookDTO> fetched = openLibraryBatcher.lookupAll(missing);
+            fetched.forEach(openLibraryDiskCache::put);
+            books.putAll(fetched);
+        }
+
+        return books;
+    }
+}
@@ -1,21 +1,152 @@
 package wolox.training.services;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.stereotype.Service;
+import wolox.training.exceptions.PasswordHashingBusyException;
+import wolox.training.security.Argon2PasswordEncoder;
+
+/**
+ * Hashes and verifies the passwords of the users. The algorithm of the new hashes and its cost
+ * are configured, and every hash is prefixed with the id of its algorithm, so the hashes of
+ * another algorithm are still verified and can be upgraded, as can the bcrypt and argon2 hashes
+ * of a lower cost. The hashes without a prefix are bcrypt, as they were stored before.
+ *
+ * <p>Hashing is deliberately slow, so it runs on a bounded pool apart from the request threads.
+ * A burst of logins or password changes waits in a bounded queue, and when the queue is full the
+ * request is rejected instead of taking the CPU of every other request.</p>
+ *
+ * @author M. G.
+ */
 
 @Service
 public class PasswordEncoderService {
 
-    private static PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    private static final String BCRYPT = "bcrypt";
+    private static final String PBKDF2 = "pbkdf2";
+    private static final String ARGON2 = "argon2";
+
+    private static final int PBKDF2_HASH_WIDTH = 256;
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final int ARGON2_PARALLELISM = 1;
+
+    @Value("${security.password.algorithm:bcrypt}")
+    private String algorithm;
+
+    @Value("${security.password.bcryptStrength:10}")
+    private int bcryptStrength;
+
+    @Value("${security.password.pbkdf2Iterations:185000}")
+    private int pbkdf2Iterations;
+
+    @Value("${security.password.argon2MemoryKib:65536}")
+    private int argon2MemoryKib;
+
+    @Value("${security.password.argon2Iterations:3}")
+    private int argon2Iterations;
+
+    @Value("${security.password.threads:2}")
+    private int threads;
+
+    @Value("${security.password.queueCapacity:100}")
+    private int queueCapacity;
+
+    private PasswordEncoder passwordEncoder;
+    private ThreadPoolTaskExecutor hashingExecutor;
+
+    @PostConstruct
+    public void start() {
+        Map<String, PasswordEncoder> encoders = new HashMap<String, PasswordEncoder>();
+        encoders.put(BCRYPT, new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put(PBKDF2, new Pbkdf2PasswordEncoder("", pbkdf2Iterations, PBKDF2_HASH_WIDTH));
+        encoders.put(ARGON2, new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH,
+            ARGON2_PARALLELISM, argon2MemoryKib, argon2Iterations));
+
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalStateException("Unknown password algorithm " + algorithm);
+        }
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(encoders.get(BCRYPT));
+        passwordEncoder = delegating;
+
+        hashingExecutor = new ThreadPoolTaskExecutor();
+        hashingExecutor.setCorePoolSize(threads);
+        hashingExecutor.setMaxPoolSize(threads);
+        hashingExecutor.setQueueCapacity(queueCapacity);
+        hashingExecutor.setThreadNamePrefix("password-hashing-");
+        hashingExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void stop() {
+        hashingExecutor.shutdown();
+    }
+
+    /**
+     * Hash a password with the configured algorithm.
+     *
+     * @param rawPassword the password
+     * @return the hash, prefixed with the id of its algorithm
+     * @throws PasswordHashingBusyException when too many passwords are waiting to be hashed
+     */
+
+    public String encode(CharSequence rawPassword) {
+        return hash(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Verify a password against a stored hash.
+     *
+     * @param rawPassword     the password
+     * @param encodedPassword the stored hash
+     * @return true if the password matches the hash
+     * @throws PasswordHashingBusyException when too many passwords are waiting to be hashed
+     */
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(() -> passwordEncoder.matches(rawPassword, encodedPassword));
     }
 
-    public static String encode(String rawPassword) {
-        return passwordEncoder().encode(rawPassword);
+    /**
+     * Whether a stored hash should be replaced, because it was made with another algorithm or a
+     * lower cost than the configured ones. The cost is compared for bcrypt and argon2 only: a
+     * pbkdf2 hash does not record its iterations, so raising them only affects the new hashes.
+     *
+     * @param encodedPassword the stored hash
+     * @return true if the password should be hashed again
+     */
+
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
     }
 
-    public static boolean matches(CharSequence rawPassword, String encodedPassword) {
-        return passwordEncoder().matches(rawPassword, encodedPassword);
+    private <T> T hash(Callable<T> task) {
+        try {
+            return hashingExecutor.submit(task).get();
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingBusyException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
     }
 }
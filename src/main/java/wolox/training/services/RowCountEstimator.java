@@ -0,0 +1,90 @@
+package wolox.training.services;
+
+import java.sql.DatabaseMetaData;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Approximate amount of rows of a table. On PostgreSQL it is read from the planner statistics,
+ * which are kept by VACUUM and ANALYZE; elsewhere it is an exact count that is reused for a while,
+ * so a listing never pays for a full count on every request.
+ *
+ * @author M. G.
+ */
+
+@Service
+public class RowCountEstimator {
+
+    private static final long CACHED_COUNT_MILLIS = 60000;
+
+    private static final String PLANNER_ESTIMATE =
+        "SELECT reltuples::bigint FROM pg_class WHERE relname = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<String, CachedCount>();
+    private boolean postgres;
+
+    @PostConstruct
+    public void detectDatabase() throws MetaDataAccessException {
+        String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+            DatabaseMetaData::getDatabaseProductName);
+        postgres = "PostgreSQL".equals(product);
+    }
+
+    /**
+     * Estimate the amount of rows of a table.
+     *
+     * @param table the name of the table
+     * @param exact how to count the rows exactly when there are no statistics
+     * @return the estimated amount of rows
+     */
+
+    public long estimate(String table, LongSupplier exact) {
+        if (postgres) {
+            Long estimate = plannerEstimate(table);
+
+            if (estimate != null && estimate >= 0) {
+                return estimate;
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        CachedCount cached = counts.get(table);
+
+        if (cached == null || now - cached.countedAt > CACHED_COUNT_MILLIS) {
+            cached = new CachedCount(exact.getAsLong(), now);
+            counts.put(table, cached);
+        }
+
+        return cached.rows;
+    }
+
+    private Long plannerEstimate(String table) {
+        try {
+            return jdbcTemplate.queryForObject(PLANNER_ESTIMATE, Long.class, table);
+        } catch (DataAccessException e) {
+            return null;
+        }
+    }
+
+    private static final class CachedCount {
+
+        private final long rows;
+        private final long countedAt;
+
+        CachedCount(long rows, long countedAt) {
+            this.rows = rows;
+            this.countedAt = countedAt;
+        }
+    }
+}
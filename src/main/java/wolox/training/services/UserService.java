@@ -1,9 +1,15 @@
 package wolox.training.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import wolox.training.exceptions.BookAlreadyOwnedException;
+import wolox.training.exceptions.BookNotOwnedException;
+import wolox.training.exceptions.PasswordHashingBusyException;
+import wolox.training.models.Book;
 import wolox.training.models.User;
 import wolox.training.repositories.UserRepository;
+import wolox.training.security.VerifiedCredentialCache;
 
 @Service
 public class UserService {
@@ -11,17 +17,98 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private VerifiedCredentialCache verifiedCredentialCache;
+
+    @Autowired
+    private PasswordEncoderService passwordEncoderService;
+
+    public User createUser(User user) {
+        user.setPassword(passwordEncoderService.encode(user.getPassword()));
+
+        return userRepository.save(user);
+    }
+
     public User updateUser(User user, User modifiedUser) {
+        String username = user.getUsername();
+
         user.setUsername(modifiedUser.getUsername());
         user.setName(modifiedUser.getName());
         user.setBirthDate(modifiedUser.getBirthDate());
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        verifiedCredentialCache.invalidate(username);
+
+        return saved;
     }
 
     public User updatePassword(User user, String password) {
-        user.setPassword(password);
+        user.setPassword(passwordEncoderService.encode(password));
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        verifiedCredentialCache.invalidate(user.getUsername());
+
+        return saved;
+    }
+
+    public void deleteUser(User user) {
+        userRepository.delete(user);
+        verifiedCredentialCache.invalidate(user.getUsername());
+    }
+
+    /**
+     * Add a {@link Book} to the books of a {@link User} with a single insert, without loading the
+     * books that the user already has.
+     *
+     * @param user the user
+     * @param book the book
+     * @throws BookAlreadyOwnedException when the user already has the book
+     */
+
+    public void addBook(User user, Book book) {
+        try {
+            if (!userRepository.addBook(user.getId(), book.getId())) {
+                throw new BookAlreadyOwnedException();
+            }
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request inserted the same row, and the primary key rejected this one
+            throw new BookAlreadyOwnedException();
+        }
+    }
+
+    /**
+     * Remove a {@link Book} from the books of a {@link User} with a single delete.
+     *
+     * @param user the user
+     * @param book the book
+     * @throws BookNotOwnedException when the user does not have the book
+     */
+
+    public void deleteBook(User user, Book book) {
+        if (!userRepository.deleteBook(user.getId(), book.getId())) {
+            throw new BookNotOwnedException();
+        }
+    }
+
+    /**
+     * Hash the password of a {@link User} again when its hash was made with another algorithm or
+     * a lower cost than the configured ones. It is called on a successful login, the only time
+     * the password is known. The login goes on with the old hash when the hashing pool is busy.
+     *
+     * @param user     the user, with the hash that was verified
+     * @param password the password that was verified
+     */
+
+    public void upgradePassword(User user, String password) {
+        if (!passwordEncoderService.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+
+        try {
+            userRepository.updatePassword(user.getId(), user.getPassword(),
+                passwordEncoderService.encode(password));
+        } catch (PasswordHashingBusyException e) {
+            // The hash is upgraded on a later login
+        }
     }
 }
@@ -0,0 +1,554 @@
+package wolox.training.store;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Key-value store on disk made of an append-only log of records and a hash index of their
+ * offsets. Both files are memory-mapped, so opening the store reads nothing, and a lookup touches
+ * only the pages of its index slots and of its record. Updating a key appends a new record and
+ * leaves the old one as garbage, which {@link #compact()} removes by rewriting the live records.
+ *
+ * <p>The log is a sequence of {@code [key length][value length][key][value]} records. The index
+ * is a header followed by an open addressing table of {@code [key hash][record offset + 1]}
+ * slots, where a zero hash marks an empty slot. The files are written without syncing, so a
+ * crash may lose the last writes, which is fine for a cache. The records are checked against the
+ * log when they are read, and a record that does not fit is read as missing.</p>
+ *
+ * <p>The files belong to a generation, named in the {@code CURRENT} file. A rewrite writes the
+ * files of the next generation and then replaces {@code CURRENT} in a single atomic move, so a
+ * crash leaves either the old files or the new ones, never a log with the index of another.</p>
+ *
+ * @author M. G.
+ */
+
+public class AppendOnlyStore implements Closeable {
+
+    private static final String LOG_FILE = "data.log";
+    private static final String INDEX_FILE = "index.bin";
+    private static final String CURRENT_FILE = "CURRENT";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private static final int MAGIC = 0x4f4c4253;
+    private static final int HEADER_BYTES = 24;
+    private static final int SLOT_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final double MAX_LOAD = 0.7;
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final Path directory;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long generation;
+    private FileChannel logChannel;
+    private FileChannel indexChannel;
+    private MappedByteBuffer index;
+    private volatile MappedByteBuffer log;
+    private long logBytes;
+    private int capacity;
+    private int size;
+    private long liveBytes;
+
+    private AppendOnlyStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Open the store of a directory, creating it when it does not exist.
+     *
+     * @param directory       the directory of the files of the store
+     * @param initialCapacity the slots of the index of a new store, rounded up to a power of two
+     * @return the store
+     * @throws IOException when the files cannot be opened
+     */
+
+    public static AppendOnlyStore open(Path directory, int initialCapacity) throws IOException {
+        Files.createDirectories(directory);
+
+        AppendOnlyStore store = new AppendOnlyStore(directory);
+        store.generation = readGeneration(directory);
+        store.deleteOtherGenerations();
+        store.map(Integer.highestOneBit(Math.max(initialCapacity, 2) * 2 - 1));
+
+        return store;
+    }
+
+    /**
+     * Return the value of a key.
+     *
+     * @param key the key
+     * @return the value, or null when the key is not stored
+     */
+
+    public byte[] get(String key) {
+        lock.readLock().lock();
+
+        try {
+            int slot = find(key, hash(key));
+
+            return slot < 0 ? null : value(recordOffset(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Store the value of a key, replacing the previous one.
+     *
+     * @param key   the key
+     * @param value the value
+     * @throws IOException when the record cannot be written
+     */
+
+    public void put(String key, byte[] value) throws IOException {
+        lock.writeLock().lock();
+
+        try {
+            if (size + 1 > capacity * MAX_LOAD) {
+                rewrite(capacity * 2);
+            }
+
+            long hash = hash(key);
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            int offset = append(keyBytes, value);
+            int slot = find(key, hash);
+
+            if (slot < 0) {
+                slot = emptySlot(hash);
+                size++;
+            } else {
+                liveBytes -= recordLength(recordOffset(slot));
+            }
+
+            setSlot(slot, hash, offset);
+            liveBytes += RECORD_HEADER_BYTES + keyBytes.length + value.length;
+            writeHeader();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrite the files with only the live records.
+     *
+     * @throws IOException when the files cannot be rewritten
+     */
+
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+
+        try {
+            rewrite(capacity);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The share of the log that belongs to replaced or lost records.
+     *
+     * @return a ratio between 0 and 1
+     */
+
+    public double garbageRatio() {
+        lock.readLock().lock();
+
+        try {
+            return logBytes == 0 ? 0 : (double) (logBytes - liveBytes) / logBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long logBytes() {
+        lock.readLock().lock();
+
+        try {
+            return logBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+
+        try {
+            index.force();
+            indexChannel.close();
+            logChannel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void map(int newCapacity) throws IOException {
+        Path indexPath = directory.resolve(fileName(INDEX_FILE, generation));
+        logChannel = FileChannel.open(directory.resolve(fileName(LOG_FILE, generation)),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        logBytes = logChannel.size();
+        log = logChannel.map(MapMode.READ_ONLY, 0, logBytes);
+
+        if (indexChannel.size() >= HEADER_BYTES) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            indexChannel.read(header, 0);
+
+            capacity = header.getInt(4);
+
+            if (header.getInt(0) != MAGIC || capacity <= 0 || Integer.bitCount(capacity) != 1
+                || indexChannel.size() < indexBytes(capacity)) {
+                throw new IOException("Not a store index: " + indexPath);
+            }
+
+            size = header.getInt(8);
+            liveBytes = header.getLong(12);
+            index = indexChannel.map(MapMode.READ_WRITE, 0, indexBytes(capacity));
+        } else {
+            capacity = newCapacity;
+            size = 0;
+            liveBytes = 0;
+            index = indexChannel.map(MapMode.READ_WRITE, 0, indexBytes(capacity));
+            writeHeader();
+        }
+    }
+
+    /**
+     * Write the live records to the files of the next generation with an index of the given
+     * capacity, and make it the current generation.
+     */
+
+    private void rewrite(int newCapacity) throws IOException {
+        long nextGeneration = generation + 1;
+        Path compactLog = directory.resolve(fileName(LOG_FILE, nextGeneration));
+        Path compactIndex = directory.resolve(fileName(INDEX_FILE, nextGeneration));
+        Files.deleteIfExists(compactLog);
+        Files.deleteIfExists(compactIndex);
+
+        AppendOnlyStore target = new AppendOnlyStore(directory);
+
+        try (FileChannel targetLog = FileChannel.open(compactLog, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileChannel targetIndex = FileChannel.open(compactIndex,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            target.logChannel = targetLog;
+            target.capacity = newCapacity;
+            target.index = targetIndex.map(MapMode.READ_WRITE, 0, indexBytes(newCapacity));
+
+            for (int slot = 0; slot < capacity; slot++) {
+                long hash = index.getLong(slotPosition(slot));
+
+                if (hash != 0) {
+                    int offset = recordOffset(slot);
+                    byte[] record = record(offset);
+
+                    if (record != null) {
+                        target.setSlot(target.emptySlot(hash), hash, target.append(record));
+                        target.size++;
+                        target.liveBytes += record.length;
+                    }
+                }
+            }
+
+            target.writeHeader();
+            target.index.force();
+            targetLog.force(true);
+        }
+
+        writeGeneration(nextGeneration);
+        indexChannel.close();
+        logChannel.close();
+        long previousGeneration = generation;
+        generation = nextGeneration;
+        map(newCapacity);
+
+        Files.deleteIfExists(directory.resolve(fileName(LOG_FILE, previousGeneration)));
+        Files.deleteIfExists(directory.resolve(fileName(INDEX_FILE, previousGeneration)));
+    }
+
+    /**
+     * Replace the {@code CURRENT} file with one that names a generation. The file is written
+     * and synced aside, and then moved over the previous one.
+     */
+
+    private void writeGeneration(long newGeneration) throws IOException {
+        Path temporary = directory.resolve(CURRENT_FILE + TEMPORARY_SUFFIX);
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.wrap(
+                Long.toString(newGeneration).getBytes(StandardCharsets.US_ASCII));
+
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+
+            channel.force(true);
+        }
+
+        Files.move(temporary, directory.resolve(CURRENT_FILE),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read the current generation. A directory without {@code CURRENT} is new, or was written
+     * before generations, and its files are those of generation 0.
+     */
+
+    private static long readGeneration(Path directory) throws IOException {
+        Path current = directory.resolve(CURRENT_FILE);
+
+        if (!Files.exists(current)) {
+            return 0;
+        }
+
+        String content = new String(Files.readAllBytes(current), StandardCharsets.US_ASCII).trim();
+
+        try {
+            return Long.parseLong(content);
+        } catch (NumberFormatException e) {
+            throw new IOException("Not a store generation: " + current, e);
+        }
+    }
+
+    /**
+     * Delete the files of the generations that a crash left behind, before or after they became
+     * the current one.
+     */
+
+    private void deleteOtherGenerations() throws IOException {
+        String log = fileName(LOG_FILE, generation);
+        String index = fileName(INDEX_FILE, generation);
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+
+                if ((name.startsWith(LOG_FILE) && !name.equals(log))
+                    || (name.startsWith(INDEX_FILE) && !name.equals(index))
+                    || name.endsWith(TEMPORARY_SUFFIX)) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private static String fileName(String base, long generation) {
+        return generation == 0 ? base : base + "." + generation;
+    }
+
+    private int find(String key, long hash) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int slot = (int) (hash & (capacity - 1));
+
+        for (int probe = 0; probe < capacity; probe++) {
+            long slotHash = index.getLong(slotPosition(slot));
+
+            if (slotHash == 0) {
+                return -1;
+            }
+
+            if (slotHash == hash && Arrays.equals(keyBytes, key(recordOffset(slot)))) {
+                return slot;
+            }
+
+            slot = (slot + 1) & (capacity - 1);
+        }
+
+        return -1;
+    }
+
+    private int emptySlot(long hash) {
+        int slot = (int) (hash & (capacity - 1));
+
+        while (index.getLong(slotPosition(slot)) != 0) {
+            slot = (slot + 1) & (capacity - 1);
+        }
+
+        return slot;
+    }
+
+    private void setSlot(int slot, long hash, int offset) {
+        index.putLong(slotPosition(slot), hash);
+        index.putLong(slotPosition(slot) + 8, offset + 1L);
+    }
+
+    private int recordOffset(int slot) {
+        return (int) (index.getLong(slotPosition(slot) + 8) - 1);
+    }
+
+    private void writeHeader() {
+        index.putInt(0, MAGIC);
+        index.putInt(4, capacity);
+        index.putInt(8, size);
+        index.putLong(12, liveBytes);
+    }
+
+    private int append(byte[] key, byte[] value) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + key.length + value.length);
+        record.putInt(key.length).putInt(value.length).put(key).put(value);
+        record.flip();
+
+        return append(record);
+    }
+
+    private int append(byte[] record) throws IOException {
+        return append(ByteBuffer.wrap(record));
+    }
+
+    private int append(ByteBuffer record) throws IOException {
+        if (logBytes + record.remaining() > Integer.MAX_VALUE) {
+            throw new IOException("The log of the store is full, it must be compacted");
+        }
+
+        int offset = (int) logBytes;
+
+        while (record.hasRemaining()) {
+            logBytes += logChannel.write(record, logBytes);
+        }
+
+        return offset;
+    }
+
+    /**
+     * Return a view of the log that covers the given offset, mapping the records appended since
+     * the last mapping when needed. The offsets beyond the end of the file belong to records
+     * lost in a crash.
+     */
+
+    private ByteBuffer logCovering(long end) {
+        MappedByteBuffer current = log;
+
+        if (end > current.capacity()) {
+            synchronized (this) {
+                current = log;
+
+                if (end > current.capacity()) {
+                    try {
+                        long mapped = logChannel.size();
+
+                        if (end > mapped) {
+                            return null;
+                        }
+
+                        current = logChannel.map(MapMode.READ_ONLY, 0, mapped);
+                        log = current;
+                    } catch (IOException e) {
+                        return null;
+                    }
+                }
+            }
+        }
+
+        return current.duplicate();
+    }
+
+    private byte[] key(int offset) {
+        ByteBuffer view = offset < 0 ? null : logCovering(offset + (long) RECORD_HEADER_BYTES);
+
+        if (view == null) {
+            return null;
+        }
+
+        int keyLength = view.getInt(offset);
+
+        if (keyLength < 0) {
+            return null;
+        }
+
+        view = logCovering(offset + (long) RECORD_HEADER_BYTES + keyLength);
+
+        return view == null ? null : bytes(view, offset + RECORD_HEADER_BYTES, keyLength);
+    }
+
+    private byte[] value(int offset) {
+        byte[] record = record(offset);
+
+        if (record == null) {
+            return null;
+        }
+
+        int keyLength = ByteBuffer.wrap(record).getInt(0);
+
+        return Arrays.copyOfRange(record, RECORD_HEADER_BYTES + keyLength, record.length);
+    }
+
+    private byte[] record(int offset) {
+        long length = recordLength(offset);
+        ByteBuffer record = length == 0 ? null : logCovering(offset + length);
+
+        return record == null ? null : bytes(record, offset, (int) length);
+    }
+
+    /**
+     * Return the length of the record at an offset, or 0 when the offset or the lengths of the
+     * record do not fit in the log.
+     */
+
+    private long recordLength(int offset) {
+        ByteBuffer view = offset < 0 ? null : logCovering(offset + (long) RECORD_HEADER_BYTES);
+
+        if (view == null || view.getInt(offset) < 0 || view.getInt(offset + 4) < 0) {
+            return 0;
+        }
+
+        long length = recordLength(view, offset);
+
+        return logCovering(offset + length) == null ? 0 : length;
+    }
+
+    private static long recordLength(ByteBuffer view, int offset) {
+        return RECORD_HEADER_BYTES + (long) view.getInt(offset) + view.getInt(offset + 4);
+    }
+
+    private static byte[] bytes(ByteBuffer view, int offset, int length) {
+        byte[] bytes = new byte[length];
+        view.position(offset);
+        view.get(bytes);
+
+        return bytes;
+    }
+
+    private static long hash(String key) {
+        long hash = HASH.hashString(key, StandardCharsets.UTF_8).asLong();
+
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long indexBytes(int capacity) {
+        return HEADER_BYTES + (long) capacity * SLOT_BYTES;
+    }
+
+    private static int slotPosition(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+}
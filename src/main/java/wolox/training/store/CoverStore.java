@@ -0,0 +1,295 @@
+package wolox.training.store;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Directory of images capped to a budget of bytes. Each image is a file named
+ * {@code {key}.{etag}{extension}}, where the etag is taken from the SHA-256 of its content, so
+ * the directory is its own index and is read back when the store is opened. When the images go
+ * over the budget, the least recently used ones are deleted.
+ *
+ * <p>Images are written to a temporary file and moved into place, so a reader never sees a
+ * partial image. The files of the images that are replaced or evicted are deleted after a delay,
+ * as a response may still be sending them, even with sendfile after the request returned.</p>
+ *
+ * @author M. G.
+ */
+
+public class CoverStore {
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int ETAG_LENGTH = 32;
+    private static final long DEFAULT_DELETE_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long deleteDelayMillis;
+    private final LinkedHashMap<String, CoverFile> files =
+        new LinkedHashMap<String, CoverFile>(16, 0.75f, true);
+    private final Deque<RetiredFile> retired = new ArrayDeque<RetiredFile>();
+    private long bytes;
+
+    private CoverStore(Path directory, long maxBytes, long deleteDelayMillis) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.deleteDelayMillis = deleteDelayMillis;
+    }
+
+    /**
+     * Open the store of a directory, deleting the replaced and evicted images after the default
+     * delay.
+     *
+     * @see #open(Path, long, long)
+     */
+
+    public static CoverStore open(Path directory, long maxBytes) throws IOException {
+        return open(directory, maxBytes, DEFAULT_DELETE_DELAY_MILLIS);
+    }
+
+    /**
+     * Open the store of a directory, creating it when it does not exist. The images found are
+     * ordered by their last modification, as their last use is not kept on disk.
+     *
+     * @param directory         the directory of the images
+     * @param maxBytes          the maximum amount of bytes of the images
+     * @param deleteDelayMillis the time that the file of a replaced or evicted image is kept
+     * @return the store
+     * @throws IOException when the directory cannot be read
+     */
+
+    public static CoverStore open(Path directory, long maxBytes, long deleteDelayMillis)
+        throws IOException {
+        Files.createDirectories(directory);
+
+        CoverStore store = new CoverStore(directory, maxBytes, deleteDelayMillis);
+        List<Path> paths = new ArrayList<Path>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                if (path.getFileName().toString().endsWith(TEMPORARY_SUFFIX)) {
+                    Files.deleteIfExists(path);
+                } else if (Files.isRegularFile(path)) {
+                    paths.add(path);
+                }
+            }
+        }
+
+        paths.sort(Comparator.comparing(CoverStore::lastModified));
+
+        synchronized (store) {
+            for (Path path : paths) {
+                String[] parts = path.getFileName().toString().split("\\.", 3);
+
+                if (parts.length < 2) {
+                    continue;
+                }
+
+                store.add(parts[0], new CoverFile(path, parts[1], Files.size(path)));
+            }
+
+            store.evict();
+        }
+
+        return store;
+    }
+
+    /**
+     * Return the image of a key and mark it as used.
+     *
+     * @param key the key of the image
+     * @return the image, or null when it is not stored
+     */
+
+    public synchronized CoverFile get(String key) {
+        return files.get(key);
+    }
+
+    /**
+     * Store the image of a key, replacing the previous one.
+     *
+     * @param key       the key of the image, without dots
+     * @param extension the extension of the file, with its dot, or an empty string
+     * @param content   the content of the image, which is read to its end but not closed
+     * @return the image stored
+     * @throws IOException when the image cannot be written
+     */
+
+    public CoverFile put(String key, String extension, InputStream content) throws IOException {
+        Path temporary = Files.createTempFile(directory, key, TEMPORARY_SUFFIX);
+
+        try {
+            HashingInputStream hashing = new HashingInputStream(Hashing.sha256(), content);
+            long length = Files.copy(hashing, temporary, StandardCopyOption.REPLACE_EXISTING);
+            String etag = hex(hashing.hash());
+            Path path = directory.resolve(key + "." + etag + extension);
+
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+            CoverFile file = new CoverFile(path, etag, length);
+
+            synchronized (this) {
+                add(key, file);
+                deleteRetired();
+                evict();
+            }
+
+            return file;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Forget the image of a key whose file is missing, so it is stored again.
+     *
+     * @param key  the key of the image
+     * @param file the image that was returned for the key
+     */
+
+    public synchronized void remove(String key, CoverFile file) {
+        if (files.remove(key, file)) {
+            bytes -= file.getLength();
+        }
+    }
+
+    /**
+     * Return the amount of bytes of the images.
+     */
+
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Return the amount of images.
+     */
+
+    public synchronized int size() {
+        return files.size();
+    }
+
+    private void add(String key, CoverFile file) throws IOException {
+        // The same image may be stored again under the name of a retired file
+        retired.removeIf(retiredFile -> retiredFile.path.equals(file.getPath()));
+
+        CoverFile previous = files.put(key, file);
+        bytes += file.getLength();
+
+        if (previous != null) {
+            bytes -= previous.getLength();
+
+            if (!previous.getPath().equals(file.getPath())) {
+                retire(previous.getPath());
+            }
+        }
+    }
+
+    /**
+     * Delete the least recently used images until the rest fit in the budget. The last image used
+     * is always kept, even when it does not fit by itself.
+     */
+
+    private void evict() throws IOException {
+        Iterator<Map.Entry<String, CoverFile>> eldest = files.entrySet().iterator();
+
+        while (bytes > maxBytes && files.size() > 1) {
+            CoverFile file = eldest.next().getValue();
+
+            eldest.remove();
+            bytes -= file.getLength();
+            retire(file.getPath());
+        }
+    }
+
+    private void retire(Path path) throws IOException {
+        if (deleteDelayMillis <= 0) {
+            Files.deleteIfExists(path);
+        } else {
+            retired.add(new RetiredFile(path, System.currentTimeMillis() + deleteDelayMillis));
+        }
+    }
+
+    /**
+     * Delete the files retired before the delay, which no response is sending anymore.
+     */
+
+    private void deleteRetired() throws IOException {
+        long now = System.currentTimeMillis();
+
+        while (!retired.isEmpty() && retired.peek().deleteAt <= now) {
+            Files.deleteIfExists(retired.poll().path);
+        }
+    }
+
+    private static String hex(HashCode hash) {
+        return hash.toString().substring(0, ETAG_LENGTH);
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime()
+                .toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static class RetiredFile {
+
+        private final Path path;
+        private final long deleteAt;
+
+        private RetiredFile(Path path, long deleteAt) {
+            this.path = path;
+            this.deleteAt = deleteAt;
+        }
+    }
+
+    /**
+     * An image of the store.
+     */
+
+    public static class CoverFile {
+
+        private final Path path;
+        private final String etag;
+        private final long length;
+
+        public CoverFile(Path path, String etag, long length) {
+            this.path = path;
+            this.etag = etag;
+            this.length = length;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public long getLength() {
+            return length;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+-- Schema that Hibernate used to create with ddl-auto=update. IF NOT EXISTS lets the migration
+-- baseline databases that were created that way.
+
+CREATE SEQUENCE IF NOT EXISTS hibernate_sequence START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS book (
+    id        BIGINT       NOT NULL,
+    genre     VARCHAR(255),
+    author    VARCHAR(255) NOT NULL,
+    image     VARCHAR(255) NOT NULL,
+    title     VARCHAR(255) NOT NULL,
+    subtitle  VARCHAR(255) NOT NULL,
+    publisher VARCHAR(255) NOT NULL,
+    year      VARCHAR(255) NOT NULL,
+    pages     INTEGER      NOT NULL,
+    isbn      VARCHAR(255) NOT NULL,
+    CONSTRAINT book_pk PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT       NOT NULL,
+    username   VARCHAR(255) NOT NULL,
+    name       VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    birth_date DATE         NOT NULL,
+    CONSTRAINT users_pk PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS users_books (
+    users_id BIGINT NOT NULL,
+    books_id BIGINT NOT NULL,
+    CONSTRAINT users_books_users_fk FOREIGN KEY (users_id) REFERENCES users (id),
+    CONSTRAINT users_books_books_fk FOREIGN KEY (books_id) REFERENCES book (id)
+);
@@ -0,0 +1,33 @@
+-- Concurrent searches of an ISBN could store its book more than once. The oldest book of each
+-- ISBN is kept, the users of the others are moved to it (V6 drops the rows this repeats) and
+-- the others are deleted.
+UPDATE users_books ub
+SET books_id = (SELECT MIN(o.id) FROM book b JOIN book o ON o.isbn = b.isbn
+    WHERE b.id = ub.books_id)
+WHERE EXISTS (SELECT 1 FROM book b JOIN book o ON o.isbn = b.isbn
+    WHERE b.id = ub.books_id AND o.id < b.id);
+
+DELETE FROM book b WHERE EXISTS (SELECT 1 FROM book o WHERE o.isbn = b.isbn AND o.id < b.id);
+
+-- findByIsbn, on every search by ISBN.
+CREATE UNIQUE INDEX IF NOT EXISTS book_isbn_uidx ON book (isbn);
+
+-- Filters and keyset pagination by sort key, with the id as tie breaker.
+CREATE INDEX IF NOT EXISTS book_title_id_idx ON book (title, id);
+CREATE INDEX IF NOT EXISTS book_author_id_idx ON book (author, id);
+CREATE INDEX IF NOT EXISTS book_publisher_id_idx ON book (publisher, id);
+CREATE INDEX IF NOT EXISTS book_year_id_idx ON book (year, id);
+
+-- Usernames were not unique either. The oldest user keeps the username and the others get their
+-- id appended, so none of them loses its password or its books.
+UPDATE users u SET username = u.username || '#' || CAST(u.id AS VARCHAR(20))
+WHERE EXISTS (SELECT 1 FROM users o WHERE o.username = u.username AND o.id < u.id);
+
+-- findByUsername, on every authenticated request.
+CREATE UNIQUE INDEX IF NOT EXISTS users_username_uidx ON users (username);
+
+-- Range filter of findByBirthDateBetweenAndNameIgnoreCase.
+CREATE INDEX IF NOT EXISTS users_birth_date_idx ON users (birth_date);
+
+-- Lookups of the users of a book; those by user use the key added by V6.
+CREATE INDEX IF NOT EXISTS users_books_books_id_idx ON users_books (books_id);
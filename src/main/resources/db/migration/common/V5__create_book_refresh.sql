@@ -0,0 +1,13 @@
+-- When a book was last compared with OpenLibrary, NULL when it never was.
+ALTER TABLE book ADD COLUMN refreshed_at TIMESTAMP;
+
+-- One row per scheduled job: the node that runs it until a time, and where it stopped.
+CREATE TABLE IF NOT EXISTS job_lock (
+    name          VARCHAR(64)   NOT NULL,
+    locked_by     VARCHAR(255),
+    locked_until  TIMESTAMP,
+    checkpoint_id BIGINT        NOT NULL DEFAULT 0,
+    CONSTRAINT job_lock_pk PRIMARY KEY (name)
+);
+
+INSERT INTO job_lock (name, checkpoint_id) VALUES ('book_refresh', 0);
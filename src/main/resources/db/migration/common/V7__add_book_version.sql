@@ -0,0 +1,2 @@
+-- Optimistic version of the books, incremented by Hibernate on every update.
+ALTER TABLE book ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
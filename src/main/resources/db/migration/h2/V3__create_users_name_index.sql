@@ -0,0 +1,2 @@
+-- H2 has no indexes on expressions, so the name is indexed as it is.
+CREATE INDEX IF NOT EXISTS users_upper_name_idx ON users (name);
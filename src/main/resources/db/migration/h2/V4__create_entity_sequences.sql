@@ -0,0 +1,3 @@
+-- One sequence per table, allocated in blocks of 50 ids by the pooled-lo optimizer.
+CREATE SEQUENCE IF NOT EXISTS book_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,7 @@
+-- A user owns a book once; the key serves the lookups by user. The rows repeated before the key
+-- existed are removed first, and the key is only added when it is missing.
+DELETE FROM users_books a WHERE EXISTS (SELECT 1 FROM users_books b
+    WHERE b.users_id = a.users_id AND b.books_id = a.books_id AND b._ROWID_ < a._ROWID_);
+
+ALTER TABLE users_books ADD CONSTRAINT IF NOT EXISTS users_books_pk
+    PRIMARY KEY (users_id, books_id);
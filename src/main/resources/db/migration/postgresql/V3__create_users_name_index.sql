@@ -0,0 +1,2 @@
+-- Case insensitive filter of findByBirthDateBetweenAndNameIgnoreCase.
+CREATE INDEX IF NOT EXISTS users_upper_name_idx ON users (UPPER(name));
@@ -0,0 +1,7 @@
+-- One sequence per table, allocated in blocks of 50 ids by the pooled-lo optimizer. They start
+-- after the ids already given by hibernate_sequence.
+CREATE SEQUENCE IF NOT EXISTS book_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+
+SELECT setval('book_seq', COALESCE((SELECT MAX(id) FROM book), 0) + 1, false);
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
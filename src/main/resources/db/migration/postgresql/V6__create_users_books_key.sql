@@ -0,0 +1,12 @@
+-- A user owns a book once; the key serves the lookups by user. The rows repeated before the key
+-- existed are removed first, and the key is only added when it is missing.
+DELETE FROM users_books a USING users_books b
+WHERE a.ctid > b.ctid AND a.users_id = b.users_id AND a.books_id = b.books_id;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'users_books_pk') THEN
+        ALTER TABLE users_books ADD CONSTRAINT users_books_pk PRIMARY KEY (users_id, books_id);
+    END IF;
+END
+$$;
@@ -1,15 +1,24 @@
 package wolox.training.controllers;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -17,39 +26,88 @@ import com.fasterxml.jackson.databind.ObjectWriter;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import java.util.ArrayList;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import wolox.training.config.OpenLibraryClientConfig;
+import wolox.training.config.OpenLibraryResilienceConfig;
+import wolox.training.dto.BookDTO;
+import wolox.training.dto.BulkResultDTO;
+import wolox.training.dto.CoverSize;
+import wolox.training.dto.ExportFormat;
+import wolox.training.dto.FacetsDTO;
 import wolox.training.models.Book;
+import wolox.training.repositories.BookCursor;
+import wolox.training.repositories.BookFilter;
 import wolox.training.repositories.BookRepository;
+import wolox.training.services.BookBulkService;
+import wolox.training.services.BookExportService;
+import wolox.training.services.BookFacetService;
+import wolox.training.services.BookSearchService;
+import wolox.training.services.BookTrigramService;
+import wolox.training.services.CoverImageService;
+import wolox.training.services.OpenLibraryBatcher;
+import wolox.training.services.OpenLibraryCache;
+import wolox.training.services.OpenLibraryClient;
+import wolox.training.services.OpenLibraryDiskCache;
 import wolox.training.services.OpenLibraryService;
+import wolox.training.services.RowCountEstimator;
+import wolox.training.store.CoverStore.CoverFile;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(BookController.class)
-@ContextConfiguration(classes = {BookController.class, OpenLibraryService.class})
+@ContextConfiguration(classes = {BookController.class, OpenLibraryService.class,
+    OpenLibraryCache.class, OpenLibraryDiskCache.class, OpenLibraryBatcher.class,
+    OpenLibraryClient.class, OpenLibraryClientConfig.class, OpenLibraryResilienceConfig.class,
+    BookTrigramService.class})
 @AutoConfigureMockMvc(addFilters = false)
 
 public class BookControllerTest {
 
     @Autowired
     private MockMvc mvc;
+    @Autowired
+    private OpenLibraryCache openLibraryCache;
     @MockBean
     private BookRepository repository;
+    @MockBean
+    private BookSearchService bookSearchService;
+    @MockBean
+    private RowCountEstimator rowCountEstimator;
+    @MockBean
+    private BookExportService bookExportService;
+    @MockBean
+    private BookBulkService bookBulkService;
+    @MockBean
+    private BookFacetService bookFacetService;
+    @MockBean
+    private CoverImageService coverImageService;
+
+    @BeforeEach
+    public void clearOpenLibraryCache() {
+        openLibraryCache.invalidateAll();
+    }
 
     @WithMockUser("test")
     @Test
@@ -63,11 +121,12 @@ public class BookControllerTest {
             "The Hitchhiker's Guide to the Galaxy", "placeholder", "Fake Books",
             "1979", 180, "0-330-25864-8");
 
-        Page<Book> allBooks = new PageImpl<Book>(Arrays.asList(book, fakeBook));
+        Slice<BookDTO> allBooks = new SliceImpl<BookDTO>(Arrays.asList(new BookDTO(book),
+            new BookDTO(fakeBook)));
 
         given(
-            repository.findByAllFields(null, "", null, null, null,
-                null, null, null, null, null, PageRequest.of(0, 2)))
+            repository.findSliceByFilter(new BookFilter(null, "", null, null, null,
+                null, null, null, null, null), PageRequest.of(0, 2), BookDTO.class))
             .willReturn(allBooks);
 
         mvc.perform(get("/api/books")
@@ -94,17 +153,19 @@ public class BookControllerTest {
             "The Hitchhiker's Guide to the Galaxy", "placeholder", "Fake Books",
             "1979", 180, "0-330-25864-8");
 
-        Page<Book> allBooks = new PageImpl<Book>(Arrays.asList(book, fakeBook));
+        Slice<BookDTO> allBooks = new SliceImpl<BookDTO>(Arrays.asList(new BookDTO(book),
+            new BookDTO(fakeBook)));
 
         given(
-            repository.findByAllFields(null, "", null, null, null,
-                null, null, null, null, null, Pageable.unpaged()))
+            repository.findSliceByFilter(new BookFilter(null, "", null, null, null,
+                null, null, null, null, null), Pageable.unpaged(), BookDTO.class))
             .willReturn(allBooks);
 
         given(
-            repository.findByAllFields(null, "", null, null, null,
-                null, null, null, null, null, PageRequest.of(0, 1, Sort.by("publisher"))))
-            .willReturn(new PageImpl<Book>(Arrays.asList(fakeBook)));
+            repository.findSliceByFilter(new BookFilter(null, "", null, null, null,
+                null, null, null, null, null), PageRequest.of(0, 1, Sort.by("publisher")),
+                BookDTO.class))
+            .willReturn(new SliceImpl<BookDTO>(Arrays.asList(new BookDTO(fakeBook))));
 
         mvc.perform(get("/api/books")
             .contentType(MediaType.APPLICATION_JSON)
@@ -130,14 +191,16 @@ public class BookControllerTest {
             "The Hitchhiker's Guide to the Galaxy", "placeholder", "Fake Books",
             "1979", 180, "0-330-25864-8");
 
-        Page<Book> allBooks = new PageImpl<Book>(Arrays.asList(book, fakeBook));
+        Slice<BookDTO> allBooks = new SliceImpl<BookDTO>(Arrays.asList(new BookDTO(book),
+            new BookDTO(fakeBook)));
 
-        given(repository.findByAllFields(null, "", null, null, null,
-            null, null, null, null, null, PageRequest.of(0, 2))).willReturn(allBooks);
+        given(repository.findSliceByFilter(new BookFilter(null, "", null, null, null,
+                null, null, null, null, null), PageRequest.of(0, 2), BookDTO.class))
+            .willReturn(allBooks);
 
-        given(repository.findByAllFields(null, "", null, null, null,
-            null, "Pan Books", null, null, null, PageRequest.of(0, 2)))
-            .willReturn(new PageImpl<Book>(Arrays.asList(book)));
+        given(repository.findSliceByFilter(new BookFilter(null, "", null, null, null,
+                null, "Pan Books", null, null, null), PageRequest.of(0, 2), BookDTO.class))
+            .willReturn(new SliceImpl<BookDTO>(Arrays.asList(new BookDTO(book))));
 
         mvc.perform(get("/api/books")
             .contentType(MediaType.APPLICATION_JSON)
@@ -154,10 +217,10 @@ public class BookControllerTest {
     @Test
     public void givenNoBooks_whenGetAllBooks_thenReturnEmptyJsonArray()
         throws Exception {
-        Page<Book> allBooks = new PageImpl<Book>(new ArrayList<Book>());
+        Slice<BookDTO> allBooks = new SliceImpl<BookDTO>(new ArrayList<BookDTO>());
 
-        given(repository.findByAllFields(null, "", null, null, null,
-            null, null, null, null, null, PageRequest.of(0, 1)))
+        given(repository.findSliceByFilter(new BookFilter(null, "", null, null, null,
+                null, null, null, null, null), PageRequest.of(0, 1), BookDTO.class))
             .willReturn(allBooks);
 
         mvc.perform(get("/api/books")
@@ -168,6 +231,199 @@ public class BookControllerTest {
             .andExpect(jsonPath("$.content", hasSize(0)));
     }
 
+    @WithMockUser("test")
+    @Test
+    public void givenBooks_whenGetAllBooksWithExactCount_thenReturnTotal()
+        throws Exception {
+
+        Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        given(repository.findPageByFilter(new BookFilter(null, "", null, null, null,
+                null, null, null, null, null), PageRequest.of(0, 1), BookDTO.class))
+            .willReturn(new PageImpl<BookDTO>(Arrays.asList(new BookDTO(book)),
+                PageRequest.of(0, 1), 3));
+
+        mvc.perform(get("/api/books")
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("page", "0")
+            .param("size", "1")
+            .param("count", "exact"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.totalElements", is(3)));
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenBooks_whenGetAllBooksWithEstimatedCount_thenReturnEstimatedTotal()
+        throws Exception {
+
+        Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        BookFilter filter = new BookFilter(null, "", null, null, null, null, null, null, null,
+            null);
+
+        given(repository.findSliceByFilter(filter, PageRequest.of(0, 1), BookDTO.class))
+            .willReturn(new SliceImpl<BookDTO>(Arrays.asList(new BookDTO(book)),
+                PageRequest.of(0, 1), true));
+        given(rowCountEstimator.estimate(eq("book"), any())).willReturn(1000L);
+
+        mvc.perform(get("/api/books")
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("page", "0")
+            .param("size", "1")
+            .param("count", "estimate"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.hasNext", is(true)))
+            .andExpect(jsonPath("$.estimatedTotal", is(1000)));
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenManyMatchingBooks_whenGetBooksWithEstimatedCount_thenReturnCappedTotal()
+        throws Exception {
+
+        Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        BookFilter filter = new BookFilter(null, "", "Douglas Adams", null, null, null, null,
+            null, null, null);
+
+        given(repository.findSliceByFilter(filter, PageRequest.of(0, 1), BookDTO.class))
+            .willReturn(new SliceImpl<BookDTO>(Arrays.asList(new BookDTO(book)),
+                PageRequest.of(0, 1), true));
+        given(repository.countByFilterUpTo(filter, 10001)).willReturn(10001L);
+
+        mvc.perform(get("/api/books")
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("author", "Douglas Adams")
+            .param("page", "0")
+            .param("size", "1")
+            .param("count", "estimate"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.estimatedTotal", is(10000)))
+            .andExpect(jsonPath("$.totalCapped", is(true)));
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenInvalidCount_whenGetAllBooks_thenReturnBadRequest()
+        throws Exception {
+        mvc.perform(get("/api/books")
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("count", "approximately"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenBooks_whenGetBooksAfterCursor_thenReturnNextCursor()
+        throws Exception {
+
+        Book book = new Book(1, "Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        BookFilter filter = new BookFilter(null, "", null, null, null, null, "Pan Books", null,
+            null, null);
+
+        given(repository.findByFilterAfter(eq(filter), any(BookCursor.class), eq(1),
+            eq(BookDTO.class))).willReturn(new SliceImpl<BookDTO>(Arrays.asList(
+            new BookDTO(book)), PageRequest.of(0, 1), true));
+
+        mvc.perform(get("/api/books")
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("publisher", "Pan Books")
+            .param("after", "")
+            .param("size", "1")
+            .param("sort", "title,asc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.content[0].publisher", is("Pan Books")))
+            .andExpect(jsonPath("$.hasNext", is(true)))
+            .andExpect(jsonPath("$.next", notNullValue()));
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenInvalidCursor_whenGetBooksAfterCursor_thenReturnBadRequest()
+        throws Exception {
+        mvc.perform(get("/api/books")
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("after", "not a cursor"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenBooks_whenExportAsCsv_thenStreamFilteredBooks()
+        throws Exception {
+        BookFilter filter = new BookFilter(null, "", null, null, null, null, "Pan Books", null,
+            null, null);
+
+        mvc.perform(get("/api/books/export")
+            .param("publisher", "Pan Books")
+            .param("format", "csv"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"));
+
+        verify(bookExportService).export(eq(filter), eq(ExportFormat.CSV), any());
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenInvalidFormat_whenExport_thenReturnBadRequest()
+        throws Exception {
+        mvc.perform(get("/api/books/export")
+            .param("format", "xml"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenBooks_whenCreateInBulk_thenReturnResult()
+        throws Exception {
+        BulkResultDTO result = new BulkResultDTO();
+        result.setReceived(2);
+        result.setCreated(1);
+        result.addError(2, "Invalid author");
+
+        given(bookBulkService.ingest(any())).willReturn(result);
+
+        mvc.perform(post("/api/books/bulk")
+            .content("{\"author\": \"Douglas Adams\"}\n{\"author\": \"\"}\n")
+            .contentType("application/x-ndjson"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.created", is(1)))
+            .andExpect(jsonPath("$.errors[0].row", is(2)));
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenBooks_whenGetFacets_thenReturnCounts()
+        throws Exception {
+        BookFilter filter = new BookFilter(null, "", null, null, null, null, null, null, null,
+            null);
+
+        given(bookFacetService.facets(filter, 20)).willReturn(new FacetsDTO(
+            Collections.singletonMap("Science Fiction", 2L),
+            Collections.singletonMap("Pan Books", 2L), Collections.singletonMap("1979", 2L), 1,
+            1));
+
+        mvc.perform(get("/api/books/facets")
+            .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.genre['Science Fiction']", is(2)))
+            .andExpect(jsonPath("$.publisher['Pan Books']", is(2)))
+            .andExpect(jsonPath("$.distinctAuthors", is(1)));
+    }
+
     @WithMockUser("test")
     @Test
     public void givenBook_whenGetABook_thenReturnJson()
@@ -297,6 +553,25 @@ public class BookControllerTest {
     }
 
 
+    @WithMockUser("test")
+    @Test
+    public void givenWords_whenSearchByText_thenReturnJsonArray()
+        throws Exception {
+
+        Book book = new Book(1, "Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        given(bookSearchService.search("guide galaxy", 10)).willReturn(Arrays.asList(book));
+
+        mvc.perform(get("/api/books/search")
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("q", "guide galaxy"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].title", is("The Hitchhiker's Guide to the Galaxy")));
+    }
+
     @WithMockUser("test")
     @Test
     public void givenIsbn_whenSearchForExistingBook_thenReturnOk()
@@ -308,8 +583,7 @@ public class BookControllerTest {
 
         given(repository.findByIsbn(book.getIsbn())).willReturn(Optional.of(book));
 
-        mvc.perform(get("/api/books/search/" + book.getIsbn())
-            .contentType(MediaType.APPLICATION_JSON))
+        searchByIsbn(book.getIsbn())
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.title", is("The Hitchhiker's Guide to the Galaxy")));
     }
@@ -336,8 +610,7 @@ public class BookControllerTest {
 
         wireMockServer.start();
 
-        mvc.perform(get("/api/books/search/" + book.getIsbn())
-            .contentType(MediaType.APPLICATION_JSON))
+        searchByIsbn(book.getIsbn())
             .andExpect(status().isCreated())
             .andExpect(jsonPath("$.title", is(book.getTitle())));
 
@@ -363,10 +636,142 @@ public class BookControllerTest {
 
         wireMockServer.start();
 
-        mvc.perform(get("/api/books/search/" + book.getIsbn())
-            .contentType(MediaType.APPLICATION_JSON))
+        searchByIsbn(book.getIsbn())
             .andExpect(status().isNotFound());
 
         wireMockServer.stop();
     }
+
+    @WithMockUser("test")
+    @Test
+    public void givenIsbn_whenSearchTwiceForUnknownBook_thenCallOpenLibraryOnce()
+        throws Exception {
+        String url = "/api/books?bibkeys=ISBN:0330258648&format=json&jscmd=data";
+
+        WireMockServer wireMockServer = new WireMockServer();
+        wireMockServer.givenThat(
+            WireMock.get(urlEqualTo(url))
+                .willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBodyFile("response_book_not_found.json")));
+
+        wireMockServer.start();
+
+        for (int i = 0; i < 2; i++) {
+            searchByIsbn("0330258648")
+                .andExpect(status().isNotFound());
+        }
+
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo(url)));
+        wireMockServer.stop();
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenIsbn_whenSearchTwiceForNewBook_thenCallOpenLibraryOnce()
+        throws Exception {
+        String url = "/api/books?bibkeys=ISBN:0330258648&format=json&jscmd=data";
+        Book book = new Book("no genre", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0330258648");
+
+        given(repository.save(book)).willReturn(book);
+
+        WireMockServer wireMockServer = new WireMockServer();
+        wireMockServer.givenThat(
+            WireMock.get(urlEqualTo(url))
+                .willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBodyFile("response_ok_book.json")));
+
+        wireMockServer.start();
+
+        for (int i = 0; i < 2; i++) {
+            searchByIsbn(book.getIsbn())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.title", is(book.getTitle())));
+        }
+
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo(url)));
+        wireMockServer.stop();
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenStoredIsbns_whenSearchAll_thenReturnBooks()
+        throws Exception {
+
+        Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0330258648");
+
+        given(repository.findByIsbnIn(any())).willReturn(Arrays.asList(book));
+
+        mvc.perform(post("/api/books/search")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("[\"0330258648\"]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].isbn", is(book.getIsbn())));
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenTooManyIsbns_whenSearchAll_thenReturnBadRequest()
+        throws Exception {
+
+        mvc.perform(post("/api/books/search")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(new ObjectMapper().writeValueAsString(Collections.nCopies(101, "0330258648"))))
+            .andExpect(status().isBadRequest());
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenCover_whenGetCover_thenReturnEtagAndCacheHeaders()
+        throws Exception {
+
+        Book book = new Book(1, "Science Fiction", "Douglas Adams",
+            "https://covers.openlibrary.org/b/id/6403521-S.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        given(repository.findById(1L)).willReturn(Optional.of(book));
+        given(coverImageService.cover(book, CoverSize.MEDIUM))
+            .willReturn(new CoverFile(Paths.get("cover.jpg"), "0123456789abcdef", 1024));
+
+        mvc.perform(get("/api/books/1/cover")
+            .param("size", "medium"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"0123456789abcdef\""))
+            .andExpect(header().string("Cache-Control", "max-age=2592000, public"));
+
+        mvc.perform(get("/api/books/1/cover")
+            .param("size", "medium")
+            .header("If-None-Match", "\"0123456789abcdef\""))
+            .andExpect(status().isNotModified());
+
+        verify(coverImageService, times(1)).send(any(), any(), any());
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenInvalidSize_whenGetCover_thenReturnBadRequest()
+        throws Exception {
+
+        mvc.perform(get("/api/books/1/cover")
+            .param("size", "huge"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions searchByIsbn(String isbn) throws Exception {
+        MvcResult result = mvc.perform(get("/api/books/search/" + isbn)
+            .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        return mvc.perform(asyncDispatch(result));
+    }
 }
@@ -3,6 +3,7 @@ package wolox.training.controllers;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -24,15 +25,21 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import wolox.training.dto.UserSummaryDTO;
+import wolox.training.exceptions.BookAlreadyOwnedException;
+import wolox.training.exceptions.BookNotOwnedException;
 import wolox.training.models.Book;
 import wolox.training.models.User;
 import wolox.training.repositories.BookRepository;
 import wolox.training.repositories.UserRepository;
+import wolox.training.services.RowCountEstimator;
 import wolox.training.services.UserService;
 
 @RunWith(SpringRunner.class)
@@ -54,17 +61,23 @@ public class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private RowCountEstimator rowCountEstimator;
+
     @WithMockUser("test")
     @Test
     public void givenUsers_whenGetAllUsers_thenReturnJsonArray()
         throws Exception {
 
-        User user = new User("mary", "Mary Lewis", LocalDate.of(1990, 1, 1), "lewis");
-        User newUser = new User("Mary", "Mary Lewis", LocalDate.of(1990, 1, 1), "lewis");
+        UserSummaryDTO user = new UserSummaryDTO(1, "mary", "Mary Lewis",
+            LocalDate.of(1990, 1, 1));
+        UserSummaryDTO newUser = new UserSummaryDTO(2, "Mary", "Mary Lewis",
+            LocalDate.of(1990, 1, 1));
 
-        Page<User> allUsers = new PageImpl<User>(Arrays.asList(user, newUser));
+        Slice<UserSummaryDTO> allUsers = new SliceImpl<UserSummaryDTO>(
+            Arrays.asList(user, newUser));
 
-        given(userRepository.findAll(PageRequest.of(0, 2))).willReturn(allUsers);
+        given(userRepository.findSummarySlice(PageRequest.of(0, 2))).willReturn(allUsers);
 
         mvc.perform(get("/api/users")
             .contentType(MediaType.APPLICATION_JSON)
@@ -80,9 +93,10 @@ public class UserControllerTest {
     @Test
     public void givenNoUsers_whenGetAllUsers_thenReturnEmptyJsonArray()
         throws Exception {
-        Page<User> allUsers = new PageImpl<User>(new ArrayList<User>());
+        Slice<UserSummaryDTO> allUsers = new SliceImpl<UserSummaryDTO>(
+            new ArrayList<UserSummaryDTO>());
 
-        given(userRepository.findAll(PageRequest.of(0, 1))).willReturn(allUsers);
+        given(userRepository.findSummarySlice(PageRequest.of(0, 1))).willReturn(allUsers);
 
         mvc.perform(get("/api/users")
             .contentType(MediaType.APPLICATION_JSON)
@@ -92,6 +106,29 @@ public class UserControllerTest {
             .andExpect(jsonPath("$.content", hasSize(0)));
     }
 
+    @WithMockUser("test")
+    @Test
+    public void givenUsers_whenGetAllUsersWithExactCount_thenReturnTotal()
+        throws Exception {
+
+        UserSummaryDTO user = new UserSummaryDTO(1, "mary", "Mary Lewis",
+            LocalDate.of(1990, 1, 1));
+
+        Page<UserSummaryDTO> allUsers = new PageImpl<UserSummaryDTO>(Arrays.asList(user),
+            PageRequest.of(0, 1), 2);
+
+        given(userRepository.findSummaries(PageRequest.of(0, 1))).willReturn(allUsers);
+
+        mvc.perform(get("/api/users")
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("page", "0")
+            .param("size", "1")
+            .param("count", "exact"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andExpect(jsonPath("$.totalElements", is(2)));
+    }
+
     @WithMockUser("test")
     @Test
     public void givenUser_whenGetAUser_thenReturnJson()
@@ -222,7 +259,30 @@ public class UserControllerTest {
 
         mvc.perform(post("/api/users/1/books/1")
             .contentType(MediaType.APPLICATION_JSON))
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.username", is("mary")))
+            .andExpect(jsonPath("$.books", hasSize(0)));
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenAUserWithTheBook_whenAddingTheBook_thenReturnConflict()
+        throws Exception {
+
+        User user = new User(1, "mary", "Mary Lewis", LocalDate.of(1990, 1, 1), "lewis",
+            new ArrayList<Book>());
+
+        Book book = new Book(1, "Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        given(userRepository.findById(1L)).willReturn(Optional.of(user));
+        given(bookRepository.findById(1L)).willReturn(Optional.of(book));
+        willThrow(new BookAlreadyOwnedException()).given(userService).addBook(user, book);
+
+        mvc.perform(post("/api/users/1/books/1")
+            .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isConflict());
     }
 
     @WithMockUser("test")
@@ -273,7 +333,30 @@ public class UserControllerTest {
 
         mvc.perform(delete("/api/users/1/books/1")
             .contentType(MediaType.APPLICATION_JSON))
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.username", is("mary")))
+            .andExpect(jsonPath("$.books", hasSize(0)));
+    }
+
+    @WithMockUser("test")
+    @Test
+    public void givenAUserWithoutTheBook_whenDeletingTheBook_thenReturnNotFound()
+        throws Exception {
+
+        User user = new User(1, "mary", "Mary Lewis", LocalDate.of(1990, 1, 1), "lewis",
+            new ArrayList<Book>());
+
+        Book book = new Book(1, "Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        given(userRepository.findById(1L)).willReturn(Optional.of(user));
+        given(bookRepository.findById(1L)).willReturn(Optional.of(book));
+        willThrow(new BookNotOwnedException()).given(userService).deleteBook(user, book);
+
+        mvc.perform(delete("/api/users/1/books/1")
+            .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotFound());
     }
 
     @WithMockUser("test")
@@ -0,0 +1,32 @@
+package wolox.training.facets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import org.junit.jupiter.api.Test;
+
+public class FacetCountsTest {
+
+    @Test
+    public void whenTop_thenReturnHighestCountsFirst() {
+        FacetCounts counts = new FacetCounts();
+        counts.increment("Pan Books");
+        counts.increment("Pan Books");
+        counts.increment("Del Rey");
+        counts.increment("Tor");
+        counts.increment(null);
+
+        assertThat(counts.top(2)).containsExactly(entry("Pan Books", 2L), entry("Del Rey", 1L));
+    }
+
+    @Test
+    public void whenDecrementToZero_thenRemoveValue() {
+        FacetCounts counts = new FacetCounts();
+        counts.increment("Pan Books");
+        counts.increment("Del Rey");
+
+        counts.decrement("Pan Books");
+
+        assertThat(counts.top(10)).containsOnlyKeys("Del Rey");
+    }
+}
@@ -0,0 +1,41 @@
+package wolox.training.facets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.data.Percentage.withPercentage;
+
+import org.junit.jupiter.api.Test;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void whenAddDistinctValues_thenEstimateIsClose() {
+        HyperLogLog sketch = new HyperLogLog();
+
+        for (int i = 0; i < 100000; i++) {
+            sketch.add("author " + i);
+        }
+
+        assertThat(sketch.estimate()).isCloseTo(100000L, withPercentage(3));
+    }
+
+    @Test
+    public void whenAddRepeatedValues_thenCountThemOnce() {
+        HyperLogLog sketch = new HyperLogLog();
+
+        for (int i = 0; i < 10000; i++) {
+            sketch.add("publisher " + (i % 10));
+        }
+
+        assertThat(sketch.estimate()).isBetween(9L, 11L);
+    }
+
+    @Test
+    public void whenClear_thenEstimateIsZero() {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add("Douglas Adams");
+
+        sketch.clear();
+
+        assertThat(sketch.estimate()).isZero();
+    }
+}
@@ -1,10 +1,16 @@
 package wolox.training.models;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,8 +19,13 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit4.SpringRunner;
+import wolox.training.dto.BookDTO;
+import wolox.training.exceptions.InvalidCursorException;
+import wolox.training.repositories.BookCursor;
+import wolox.training.repositories.BookFilter;
 import wolox.training.repositories.BookRepository;
 
 @RunWith(SpringRunner.class)
@@ -144,7 +155,7 @@ public class BookTest {
     }
 
     @Test
-    public void whenFindByAllFields_thenReturnBook() {
+    public void whenFindByFilter_thenReturnBook() {
         Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
             "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
             "1979", 180, "0-330-25864-8");
@@ -158,15 +169,15 @@ public class BookTest {
         entityManager.flush();
 
         Page<Book> found = bookRepository
-            .findByAllFields(book.getId(), book.getGenre(), book.getAuthor(), book.getImage(),
-                book.getTitle(), book.getSubtitle(), book.getPublisher(), book.getYear(),
-                book.getPages(), book.getIsbn(), Pageable.unpaged());
+            .findByFilter(new BookFilter(book.getId(), book.getGenre(), book.getAuthor(),
+                book.getImage(), book.getTitle(), book.getSubtitle(), book.getPublisher(),
+                book.getYear(), book.getPages(), book.getIsbn()), Pageable.unpaged());
 
         assertThat(found.get()).isEqualTo(Arrays.asList(book));
     }
 
     @Test
-    public void whenFindBySomeFields_thenReturnBook() {
+    public void whenFindByFilterSomeFields_thenReturnBook() {
         Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
             "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
             "1979", 180, "0-330-25864-8");
@@ -180,15 +191,15 @@ public class BookTest {
         entityManager.flush();
 
         Page<Book> found = bookRepository
-            .findByAllFields(null, book.getGenre(), book.getAuthor(), book.getImage(),
+            .findByFilter(new BookFilter(null, book.getGenre(), book.getAuthor(), book.getImage(),
                 book.getTitle(), book.getSubtitle(), null, book.getYear(),
-                book.getPages(), null, Pageable.unpaged());
+                book.getPages(), null), Pageable.unpaged());
 
         assertThat(found.get()).isEqualTo(Arrays.asList(book, fakeBook));
     }
 
     @Test
-    public void whenFindBySomeFieldsPaged_thenReturnBook() {
+    public void whenFindByFilterSomeFieldsPaged_thenReturnBook() {
         Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
             "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
             "1979", 180, "0-330-25864-8");
@@ -202,13 +213,201 @@ public class BookTest {
         entityManager.flush();
 
         Page<Book> found = bookRepository
-            .findByAllFields(null, book.getGenre(), book.getAuthor(), book.getImage(),
+            .findByFilter(new BookFilter(null, book.getGenre(), book.getAuthor(), book.getImage(),
                 book.getTitle(), book.getSubtitle(), null, book.getYear(),
-                book.getPages(), null, PageRequest.of(0, 1, Sort.by("publisher")));
+                book.getPages(), null), PageRequest.of(0, 1, Sort.by("publisher")));
 
         assertThat(found.get()).isEqualTo(Arrays.asList(fakeBook));
     }
 
+    @Test
+    public void whenFindByFilterContains_thenReturnBook() {
+        Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        Book fakeBook = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Restaurant at the End of the Universe", "placeholder", "Pan Books",
+            "1980", 208, "0-330-26213-0");
+
+        entityManager.persist(book);
+        entityManager.persist(fakeBook);
+        entityManager.flush();
+
+        Page<Book> found = bookRepository
+            .findByFilter(new BookFilter(null, "fiction", null, null, null, null, null, null,
+                null, null, "GALAXY", null), Pageable.unpaged());
+
+        assertThat(found.get()).isEqualTo(Arrays.asList(book));
+    }
+
+    @Test
+    public void whenFindByFilterCandidates_thenReturnOnlyCandidates() {
+        Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        Book fakeBook = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Restaurant at the End of the Universe", "placeholder", "Pan Books",
+            "1980", 208, "0-330-26213-0");
+
+        entityManager.persist(book);
+        entityManager.persist(fakeBook);
+        entityManager.flush();
+
+        Page<Book> found = bookRepository
+            .findByFilter(new BookFilter(null, null, null, null, null, null, null, null, null,
+                null, null, Collections.singleton(fakeBook.getId())), Pageable.unpaged());
+
+        assertThat(found.get()).isEqualTo(Arrays.asList(fakeBook));
+    }
+
+    @Test
+    public void whenFindByFilterAfter_thenReturnBooksAfterCursor() {
+        Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        Book fakeBook = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Fake Books",
+            "1979", 180, "0-330-25864-9");
+
+        entityManager.persist(book);
+        entityManager.persist(fakeBook);
+        entityManager.flush();
+
+        BookFilter filter = new BookFilter(null, "Fiction", book.getAuthor(), null, null, null,
+            null, null, null, null);
+        BookCursor cursor = BookCursor.first(Sort.by("publisher"));
+
+        Slice<Book> first = bookRepository.findByFilterAfter(filter, cursor, 1);
+
+        assertThat(first.getContent()).isEqualTo(Arrays.asList(fakeBook));
+        assertThat(first.hasNext()).isTrue();
+
+        BookCursor next = BookCursor.decode(cursor.next(fakeBook).encode());
+        Slice<Book> second = bookRepository.findByFilterAfter(filter, next, 1);
+
+        assertThat(second.getContent()).isEqualTo(Arrays.asList(book));
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    public void whenFindSliceByFilter_thenReturnSliceWithoutCount() {
+        Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        Book fakeBook = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Fake Books",
+            "1979", 180, "0-330-25864-9");
+
+        entityManager.persist(book);
+        entityManager.persist(fakeBook);
+        entityManager.flush();
+
+        BookFilter filter = new BookFilter(null, null, book.getAuthor(), null, null, null, null,
+            null, null, null);
+
+        Slice<Book> first = bookRepository.findSliceByFilter(filter,
+            PageRequest.of(0, 1, Sort.by("publisher")), Book.class);
+        Slice<Book> second = bookRepository.findSliceByFilter(filter,
+            PageRequest.of(1, 1, Sort.by("publisher")), Book.class);
+
+        assertThat(first.getContent()).isEqualTo(Arrays.asList(fakeBook));
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).isEqualTo(Arrays.asList(book));
+        assertThat(second.hasNext()).isFalse();
+        assertThat(bookRepository.countByFilterUpTo(filter, 1)).isEqualTo(1);
+        assertThat(bookRepository.countByFilterUpTo(filter, 3)).isEqualTo(2);
+    }
+
+    @Test
+    public void whenStreamByFilter_thenReturnBooksOrderedById() {
+        Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        Book otherBook = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Restaurant at the End of the Universe", "placeholder", "Pan Books",
+            "1980", 208, "0-330-26213-0");
+
+        entityManager.persist(book);
+        entityManager.persist(otherBook);
+        entityManager.flush();
+
+        BookFilter filter = new BookFilter(null, null, null, null, null, null, "Pan Books", null,
+            null, null);
+
+        try (Stream<Book> books = bookRepository.streamByFilter(filter, 1)) {
+            assertThat(books.collect(Collectors.toList()))
+                .isEqualTo(Arrays.asList(book, otherBook));
+        }
+    }
+
+    @Test
+    public void whenCountByFilterGroupBy_thenReturnCountsPerValue() {
+        Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        Book otherBook = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Restaurant at the End of the Universe", "placeholder", "Pan Books",
+            "1980", 208, "0-330-26213-0");
+
+        Book fakeBook = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Fake Books",
+            "1979", 180, "0-330-25864-9");
+
+        entityManager.persist(book);
+        entityManager.persist(otherBook);
+        entityManager.persist(fakeBook);
+        entityManager.flush();
+
+        BookFilter filter = new BookFilter(null, null, "Douglas Adams", null, null, null, null,
+            null, null, null);
+
+        assertThat(bookRepository.countByFilterGroupBy(filter, "publisher", 10))
+            .containsExactly(entry("Pan Books", 2L), entry("Fake Books", 1L));
+        assertThat(bookRepository.countByFilterGroupBy(filter, "year", 1))
+            .containsExactly(entry("1979", 2L));
+    }
+
+    @Test
+    public void whenFindPageByFilterProjected_thenReturnColumnsAndTotal() {
+        Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books",
+            "1979", 180, "0-330-25864-8");
+
+        Book fakeBook = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Fake Books",
+            "1979", 180, "0-330-25864-9");
+
+        entityManager.persist(book);
+        entityManager.persist(fakeBook);
+        entityManager.flush();
+        entityManager.clear();
+
+        BookFilter filter = new BookFilter(null, null, book.getAuthor(), null, null, null, null,
+            null, null, null);
+
+        Page<BookDTO> page = bookRepository.findPageByFilter(filter,
+            PageRequest.of(0, 1, Sort.by("publisher")), BookDTO.class);
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting("id", "publisher", "isbn")
+            .containsExactly(tuple(fakeBook.getId(), "Fake Books", "0-330-25864-9"));
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics()
+            .getEntityCount()).isZero();
+    }
+
+    @Test
+    public void whenDecodeInvalidCursor_thenThrowException() {
+        assertThrows(InvalidCursorException.class, () -> {
+            BookCursor.decode("not a cursor");
+        });
+    }
+
     @Test
     public void whenInitializeBookWithoutGenre_thenThrowException() {
         assertThrows(IllegalArgumentException.class, () -> {
@@ -0,0 +1,113 @@
+package wolox.training.models;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.persistence.Query;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import wolox.training.repositories.UserRepository;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+    + "wolox.training.models.SchemaTest$StatementRecorder")
+public class SchemaTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void whenFindByIsbn_thenUseIsbnIndex() {
+        assertThat(explain("SELECT * FROM book WHERE isbn = '0-330-25864-8'"))
+            .containsIgnoringCase("book_isbn_uidx");
+    }
+
+    @Test
+    public void whenFindByUsername_thenUseUsernameIndex() {
+        assertThat(explain("SELECT * FROM users WHERE username = 'mary'"))
+            .containsIgnoringCase("users_username_uidx");
+    }
+
+    @Test
+    public void whenFindByBirthDateBetween_thenUseBirthDateIndex() {
+        LocalDate startDate = LocalDate.of(1990, 1, 1);
+        LocalDate endDate = LocalDate.of(1991, 1, 1);
+
+        String sql = generatedSql(() -> userRepository.findByBirthDateBetweenAndNameIgnoreCase(
+            startDate, endDate, null, PageRequest.of(0, 10)));
+
+        assertThat(sql).doesNotContainIgnoringCase(" is null");
+        // The parameters are the range and the size of the page
+        assertThat(explain(sql, startDate, endDate, 10))
+            .containsIgnoringCase("users_birth_date_idx");
+    }
+
+    @Test
+    public void whenFindByNameIgnoreCase_thenFilterByTheIndexedExpression() {
+        String sql = generatedSql(() -> userRepository.findByBirthDateBetweenAndNameIgnoreCase(
+            null, null, "marY lewiS", PageRequest.of(0, 10)));
+
+        // PostgreSQL indexes UPPER(name); H2 has no indexes on expressions to check the plan
+        assertThat(sql).doesNotContainIgnoringCase(" is null")
+            .doesNotContainIgnoringCase("birth_date")
+            .containsPattern("(?i)where upper\\(\\w+\\.name\\)=\\?");
+    }
+
+    @Test
+    public void whenFindBooksOfUser_thenUseJoinTableKey() {
+        assertThat(explain("SELECT * FROM users_books WHERE users_id = 1"))
+            .doesNotContain("tableScan");
+    }
+
+    @Test
+    public void whenFindUsersOfBook_thenUseBooksIndex() {
+        assertThat(explain("SELECT * FROM users_books WHERE books_id = 1"))
+            .doesNotContain("tableScan");
+    }
+
+    private String explain(String query, Object... parameters) {
+        Query explain = entityManager.getEntityManager().createNativeQuery("EXPLAIN " + query);
+
+        for (int i = 0; i < parameters.length; i++) {
+            explain.setParameter(i + 1, parameters[i]);
+        }
+
+        return String.valueOf(explain.getSingleResult());
+    }
+
+    /**
+     * Run a repository query and return the SQL that Hibernate generated for its rows.
+     */
+
+    private String generatedSql(Runnable repositoryQuery) {
+        StatementRecorder.STATEMENTS.clear();
+        repositoryQuery.run();
+
+        return StatementRecorder.STATEMENTS.stream()
+            .filter(sql -> !sql.toLowerCase().startsWith("select count"))
+            .findFirst()
+            .orElseThrow(IllegalStateException::new);
+    }
+
+    public static class StatementRecorder implements StatementInspector {
+
+        private static final List<String> STATEMENTS = new CopyOnWriteArrayList<String>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
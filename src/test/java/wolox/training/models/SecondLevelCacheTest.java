@@ -0,0 +1,174 @@
+package wolox.training.models;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Supplier;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import wolox.training.repositories.BookRepository;
+import wolox.training.repositories.UserRepository;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+    "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+    "spring.jpa.properties.hibernate.javax.cache.provider="
+        + "org.ehcache.jsr107.EhcacheCachingProvider",
+    "spring.jpa.properties.hibernate.javax.cache.uri=classpath:ehcache.xml",
+    "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Book book;
+
+    @BeforeEach
+    public void saveUserAndBook() {
+        user = userRepository.save(new User("mary", "Mary Lewis", LocalDate.of(1990, 1, 1),
+            "lewis"));
+        book = bookRepository.save(new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books", "1979", 180,
+            "0330258648"));
+    }
+
+    @AfterEach
+    public void deleteAll() {
+        userRepository.deleteAll();
+        bookRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    public void givenCachedBook_whenFindAgain_thenHitTheCache() {
+        Statistics statistics = statistics();
+        bookRepository.findById(book.getId());
+        long hits = statistics.getSecondLevelCacheHitCount();
+
+        bookRepository.findById(book.getId());
+        assertThat(bookRepository.findByIsbn("0330258648")).isPresent();
+
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(hits);
+    }
+
+    @Test
+    public void givenCachedBook_whenFindAllByIdInOrder_thenLoadItWithoutQuery() {
+        Statistics statistics = statistics();
+        bookRepository.findById(book.getId());
+        long queries = statistics.getPrepareStatementCount();
+
+        assertThat(bookRepository.findAllByIdInOrder(Arrays.asList(book.getId())))
+            .containsExactly(book);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(queries);
+
+        // Only the books that are not cached are queried, and the missing ones are skipped
+        assertThat(bookRepository.findAllByIdInOrder(Arrays.asList(-1L, book.getId())))
+            .containsExactly(book);
+    }
+
+    @Test
+    public void whenScanAllBooks_thenDoNotCacheThem() {
+        entityManagerFactory.getCache().evictAll();
+
+        bookRepository.scanAll(scanned -> {
+        });
+
+        assertThat(entityManagerFactory.getCache().contains(Book.class, book.getId())).isFalse();
+
+        bookRepository.findById(book.getId());
+        assertThat(entityManagerFactory.getCache().contains(Book.class, book.getId())).isTrue();
+    }
+
+    @Test
+    public void givenCachedBook_whenUpdated_thenReadTheNewVersion() {
+        bookRepository.findById(book.getId());
+        bookRepository.findByIsbn("0330258648");
+
+        Book updated = bookRepository.findById(book.getId()).get();
+        updated.setTitle("Mostly Harmless");
+        updated.setIsbn("0330323113");
+        bookRepository.save(updated);
+
+        assertThat(bookRepository.findById(book.getId()).get().getTitle())
+            .isEqualTo("Mostly Harmless");
+        assertThat(bookRepository.findByIsbn("0330323113")).isPresent();
+        assertThat(bookRepository.findByIsbn("0330258648")).isEmpty();
+    }
+
+    @Test
+    public void givenCachedUser_whenUsernameChanges_thenResolveTheNewUsername() {
+        userRepository.findByUsername("mary");
+
+        User updated = userRepository.findById(user.getId()).get();
+        updated.setUsername("mary.lewis");
+        userRepository.save(updated);
+
+        assertThat(userRepository.findByUsername("mary.lewis")).isPresent();
+        assertThat(userRepository.findByUsername("mary")).isEmpty();
+    }
+
+    @Test
+    public void givenCachedUser_whenPasswordChanges_thenReadTheNewHash() {
+        userRepository.findById(user.getId());
+
+        User updated = userRepository.findById(user.getId()).get();
+        updated.setPassword("saved");
+        userRepository.save(updated);
+
+        assertThat(userRepository.findById(user.getId()).get().getPassword()).isEqualTo("saved");
+
+        assertThat(userRepository.updatePassword(user.getId(), "saved", "bulk")).isEqualTo(1);
+
+        assertThat(userRepository.findById(user.getId()).get().getPassword()).isEqualTo("bulk");
+        assertThat(userRepository.findByUsername("mary").get().getPassword()).isEqualTo("bulk");
+    }
+
+    @Test
+    public void givenCachedBooksOfUser_whenJoinTableIsWritten_thenReadTheNewBooks() {
+        assertThat(inTransaction(() -> booksOfUser())).isZero();
+
+        userRepository.addBook(user.getId(), book.getId());
+        assertThat(inTransaction(() -> booksOfUser())).isEqualTo(1);
+
+        userRepository.deleteBook(user.getId(), book.getId());
+        assertThat(inTransaction(() -> booksOfUser())).isZero();
+    }
+
+    private int booksOfUser() {
+        return userRepository.findById(user.getId()).get().getBooks().size();
+    }
+
+    private <T> T inTransaction(Supplier<T> supplier) {
+        return new TransactionTemplate(transactionManager).execute(status -> supplier.get());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
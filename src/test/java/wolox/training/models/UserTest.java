@@ -14,7 +14,10 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit4.SpringRunner;
+import wolox.training.dto.UserSummaryDTO;
 import wolox.training.repositories.UserRepository;
 
 @RunWith(SpringRunner.class)
@@ -40,10 +43,35 @@ public class UserTest {
             .isEqualTo(user.getUsername());
     }
 
+    @Test
+    public void whenAddAndDeleteBook_thenWriteOnlyItsRow() {
+        User user = new User("mary", "Mary Lewis", LocalDate.of(1990, 1, 1), "lewis");
+        Book book = new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books", "1979", 180,
+            "0-330-25864-8");
+
+        entityManager.persist(user);
+        entityManager.persist(book);
+        entityManager.flush();
+
+        assertThat(userRepository.addBook(user.getId(), book.getId())).isTrue();
+        assertThat(userRepository.addBook(user.getId(), book.getId())).isFalse();
+
+        entityManager.clear();
+        assertThat(entityManager.find(User.class, user.getId()).getBooks())
+            .containsExactly(book);
+
+        assertThat(userRepository.deleteBook(user.getId(), book.getId())).isTrue();
+        assertThat(userRepository.deleteBook(user.getId(), book.getId())).isFalse();
+
+        entityManager.clear();
+        assertThat(entityManager.find(User.class, user.getId()).getBooks()).isEmpty();
+    }
+
     @Test
     public void whenFindByBirthDateBetweenAndNameIgnoreCase_thenReturnUser() {
         User user = new User("mary", "Mary Lewis", LocalDate.of(1990, 1, 1), "lewis");
-        User fakeUser = new User("mary", "Mary Lewis", LocalDate.of(1993, 1, 1), "lewis");
+        User fakeUser = new User("mary.lewis", "Mary Lewis", LocalDate.of(1993, 1, 1), "lewis");
 
         entityManager.persist(user);
         entityManager.persist(fakeUser);
@@ -59,7 +87,7 @@ public class UserTest {
     @Test
     public void whenFindByBirthDateBetween_thenReturnUser() {
         User user = new User("mary", "Mary Lewis", LocalDate.of(1990, 1, 1), "lewis");
-        User fakeUser = new User("mary", "Mary Lewis", LocalDate.of(1993, 1, 1), "lewis");
+        User fakeUser = new User("mary.lewis", "Mary Lewis", LocalDate.of(1993, 1, 1), "lewis");
 
         entityManager.persist(user);
         entityManager.persist(fakeUser);
@@ -75,7 +103,7 @@ public class UserTest {
     @Test
     public void whenFindByBirthDateStart_thenReturnUser() {
         User user = new User("mary", "Mary Lewis", LocalDate.of(1990, 1, 1), "lewis");
-        User fakeUser = new User("mary", "Mary Lewis", LocalDate.of(1993, 1, 1), "lewis");
+        User fakeUser = new User("mary.lewis", "Mary Lewis", LocalDate.of(1993, 1, 1), "lewis");
 
         entityManager.persist(user);
         entityManager.persist(fakeUser);
@@ -91,7 +119,7 @@ public class UserTest {
     @Test
     public void whenFindByBirthDateEnd_thenReturnUser() {
         User user = new User("mary", "Mary Lewis", LocalDate.of(1990, 1, 1), "lewis");
-        User fakeUser = new User("mary", "Mary Lewis", LocalDate.of(1993, 1, 1), "lewis");
+        User fakeUser = new User("mary.lewis", "Mary Lewis", LocalDate.of(1993, 1, 1), "lewis");
 
         entityManager.persist(user);
         entityManager.persist(fakeUser);
@@ -107,7 +135,7 @@ public class UserTest {
     @Test
     public void whenFindByNameIgnoreCase_thenReturnUser() {
         User user = new User("mary", "Mary Lewis", LocalDate.of(1990, 1, 1), "lewis");
-        User fakeUser = new User("mary", "Mary Lewis", LocalDate.of(1993, 1, 1), "lewis");
+        User fakeUser = new User("mary.lewis", "Mary Lewis", LocalDate.of(1993, 1, 1), "lewis");
 
         entityManager.persist(user);
         entityManager.persist(fakeUser);
@@ -122,7 +150,7 @@ public class UserTest {
     @Test
     public void whenFindByNameIgnoreCasePaged_thenReturnUser() {
         User user = new User("mary", "Mary Lewis", LocalDate.of(1990, 1, 1), "lewis");
-        User fakeUser = new User("mary", "Mary Lewis", LocalDate.of(1993, 1, 1), "lewis");
+        User fakeUser = new User("mary.lewis", "Mary Lewis", LocalDate.of(1993, 1, 1), "lewis");
 
         entityManager.persist(user);
         entityManager.persist(fakeUser);
@@ -135,6 +163,22 @@ public class UserTest {
         assertThat(found.get()).isEqualTo(Arrays.asList(user));
     }
 
+    @Test
+    public void whenFindSummarySlice_thenReturnUsersWithoutBooks() {
+        User user = new User("mary", "Mary Lewis", LocalDate.of(1990, 1, 1), "lewis");
+        User fakeUser = new User("mary.lewis", "Mary Lewis", LocalDate.of(1993, 1, 1), "lewis");
+
+        entityManager.persist(user);
+        entityManager.persist(fakeUser);
+        entityManager.flush();
+
+        Slice<UserSummaryDTO> first = userRepository.findSummarySlice(
+            PageRequest.of(0, 1, Sort.by("username")));
+
+        assertThat(first.getContent()).extracting("username").containsExactly("mary");
+        assertThat(first.hasNext()).isTrue();
+    }
+
     @Test
     public void whenInitializeUserWithoutUsername_thenThrowException() {
         assertThrows(IllegalArgumentException.class, () -> {
@@ -0,0 +1,78 @@
+package wolox.training.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class InvertedIndexTest {
+
+    @Test
+    public void whenSearch_thenReturnMostRelevantFirst() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, "The Hitchhiker's Guide to the Galaxy", "Douglas Adams");
+        index.put(2, "The Restaurant at the End of the Universe", "Douglas Adams");
+        index.put(3, "Dune", "Frank Herbert");
+
+        List<SearchHit> hits = index.search("galaxy adams", 10);
+
+        assertThat(hits).extracting(SearchHit::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void whenSearchWithLimit_thenReturnOnlyTheBest() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, "The Hitchhiker's Guide to the Galaxy", "Douglas Adams");
+        index.put(2, "The Restaurant at the End of the Universe", "Douglas Adams");
+
+        List<SearchHit> hits = index.search("guide adams", 1);
+
+        assertThat(hits).extracting(SearchHit::getId).containsExactly(1L);
+    }
+
+    @Test
+    public void whenDocumentIsUpdatedOrRemoved_thenSearchReflectsIt() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, "The Hitchhiker's Guide to the Galaxy");
+        index.put(2, "Dune");
+
+        index.put(1, "Mostly Harmless");
+        index.remove(2);
+
+        assertThat(index.search("galaxy dune", 10)).isEmpty();
+        assertThat(index.search("harmless", 10)).extracting(SearchHit::getId)
+            .containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenManyDocumentsAreRemoved_thenIndexIsCompacted() {
+        InvertedIndex index = new InvertedIndex();
+
+        for (long id = 0; id < 5000; id++) {
+            index.put(id, "book " + id);
+        }
+        for (long id = 0; id < 4999; id++) {
+            index.remove(id);
+        }
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.search("book", 10)).extracting(SearchHit::getId)
+            .containsExactly(4999L);
+    }
+
+    @Test
+    public void whenDocumentIsUpdatedManyTimes_thenCompactAndKeepTheLastVersion() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(2, "Dune");
+
+        for (int i = 0; i < 5000; i++) {
+            index.put(1, "The Hitchhiker's Guide to the Galaxy", "edition " + i);
+        }
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("edition 4999", 10)).extracting(SearchHit::getId)
+            .containsExactly(1L);
+        assertThat(index.search("dune", 10)).extracting(SearchHit::getId).containsExactly(2L);
+    }
+}
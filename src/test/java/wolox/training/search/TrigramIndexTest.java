@@ -0,0 +1,60 @@
+package wolox.training.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class TrigramIndexTest {
+
+    @Test
+    public void whenFind_thenReturnValuesContainingTheText() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(5, "Science Fiction");
+        index.put(2, "Fantasy Fiction");
+        index.put(9, "History");
+
+        assertThat(index.find("FICT")).containsExactly(2L, 5L);
+        assertThat(index.find("ence fi")).containsExactly(5L);
+        assertThat(index.find("drama")).isEmpty();
+    }
+
+    @Test
+    public void whenFindShortText_thenReturnNull() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Science Fiction");
+
+        assertThat(index.find("fi")).isNull();
+    }
+
+    @Test
+    public void whenValueIsReplacedOrRemoved_thenFindReflectsIt() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "Science Fiction");
+        index.put(2, "Fantasy Fiction");
+
+        index.put(1, "Drama");
+        index.remove(2);
+
+        assertThat(index.find("fiction")).isEmpty();
+        assertThat(index.find("dram")).containsExactly(1L);
+    }
+
+    @Test
+    public void whenIdsAreUpdatedOutOfOrder_thenFindReturnsThemSorted() {
+        TrigramIndex index = new TrigramIndex();
+
+        for (long id = 10000; id > 0; id--) {
+            index.put(id, id % 2 == 0 ? "Science Fiction" : "Drama");
+        }
+
+        for (long id = 1; id <= 10000; id += 4) {
+            index.remove(id + 1);
+        }
+
+        long[] found = index.find("fiction");
+
+        assertThat(found).hasSize(2500).isSorted();
+        assertThat(found[0]).isEqualTo(4L);
+        assertThat(index.find("drama")).hasSize(5000).isSorted();
+    }
+}
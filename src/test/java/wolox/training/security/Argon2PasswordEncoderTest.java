@@ -0,0 +1,43 @@
+package wolox.training.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class Argon2PasswordEncoderTest {
+
+    private final Argon2PasswordEncoder encoder = new Argon2PasswordEncoder(16, 32, 1, 1024, 2);
+
+    @Test
+    public void whenEncode_thenMatchOnlyTheSamePassword() {
+        String hash = encoder.encode("lewis");
+
+        assertThat(hash).startsWith("$argon2id$v=19$m=1024,t=2,p=1$");
+        assertThat(encoder.matches("lewis", hash)).isTrue();
+        assertThat(encoder.matches("Lewis", hash)).isFalse();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    public void givenHashOfTheReferenceImplementation_whenMatches_thenVerifyIt() {
+        String hash = "$argon2i$v=19$m=65536,t=2,p=4$c29tZXNhbHQ$RdescudvJCsgt3ub+b+dWRWJTmaaJObG";
+
+        assertThat(encoder.matches("password", hash)).isTrue();
+        assertThat(encoder.matches("passwords", hash)).isFalse();
+    }
+
+    @Test
+    public void givenHashOfLowerCost_whenUpgradeEncoding_thenAskForUpgrade() {
+        String hash = new Argon2PasswordEncoder(16, 32, 1, 512, 2).encode("lewis");
+
+        assertThat(encoder.matches("lewis", hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isTrue();
+    }
+
+    @Test
+    public void givenOtherHash_whenMatches_thenReturnFalse() {
+        assertThat(encoder.matches("lewis", "$2a$10$abcdefghijklmnopqrstuv")).isFalse();
+        assertThat(encoder.matches("lewis", null)).isFalse();
+        assertThat(encoder.upgradeEncoding("$argon2id$v=19$broken")).isFalse();
+    }
+}
@@ -0,0 +1,77 @@
+package wolox.training.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.security.TokenService.Type;
+
+public class TokenServiceTest {
+
+    private static final String SECRET = "c2VjcmV0LWtleS1vZi10aGUtdG9rZW5zLW9mLXRoZS10ZXN0cw==";
+
+    @Test
+    public void givenAccessToken_whenVerify_thenReturnItsUser() {
+        TokenService tokenService = tokenService(900);
+
+        TokenClaims claims = tokenService.verify(tokenService.issue(Type.ACCESS, "test", null),
+            Type.ACCESS);
+
+        assertThat(claims.getUsername()).isEqualTo("test");
+    }
+
+    @Test
+    public void givenForgedToken_whenVerify_thenReturnNull() {
+        TokenService tokenService = tokenService(900);
+        String token = tokenService.issue(Type.ACCESS, "test", null);
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + tokenService.issue(Type.ACCESS, "admin", null)
+            .split("\\.")[1] + "." + parts[2];
+
+        assertThat(tokenService.verify(forged, Type.ACCESS)).isNull();
+        assertThat(tokenService.verify("not a token", Type.ACCESS)).isNull();
+    }
+
+    @Test
+    public void givenExpiredOrRefreshToken_whenVerifyAccess_thenReturnNull() {
+        TokenService expired = tokenService(-1);
+        TokenService tokenService = tokenService(900);
+
+        assertThat(expired.verify(expired.issue(Type.ACCESS, "test", null), Type.ACCESS))
+            .isNull();
+        assertThat(tokenService.verify(tokenService.issue(Type.REFRESH, "test", "hash"),
+            Type.ACCESS)).isNull();
+    }
+
+    @Test
+    public void givenRefreshToken_whenPasswordChanges_thenDoNotMatch() {
+        TokenService tokenService = tokenService(900);
+
+        TokenClaims claims = tokenService.verify(tokenService.issue(Type.REFRESH, "test", "hash"),
+            Type.REFRESH);
+
+        assertThat(tokenService.matchesPassword(claims, "hash")).isTrue();
+        assertThat(tokenService.matchesPassword(claims, "new hash")).isFalse();
+    }
+
+    @Test
+    public void givenMissingOrShortSecret_whenInit_thenFail() {
+        for (String secret : new String[]{"", "c2hvcnQta2V5", "not base64!"}) {
+            TokenService tokenService = new TokenService();
+            ReflectionTestUtils.setField(tokenService, "secret", secret);
+
+            assertThrows(IllegalStateException.class, tokenService::init);
+        }
+    }
+
+    private TokenService tokenService(long accessTtlSeconds) {
+        TokenService tokenService = new TokenService();
+        ReflectionTestUtils.setField(tokenService, "secret", SECRET);
+        ReflectionTestUtils.setField(tokenService, "accessTtlSeconds", accessTtlSeconds);
+        ReflectionTestUtils.setField(tokenService, "refreshTtlSeconds", 604800L);
+        tokenService.init();
+
+        return tokenService;
+    }
+}
@@ -0,0 +1,46 @@
+package wolox.training.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = VerifiedCredentialCache.class)
+public class VerifiedCredentialCacheTest {
+
+    @Autowired
+    private VerifiedCredentialCache verifiedCredentialCache;
+
+    @Test
+    public void givenVerifiedPassword_whenIsVerified_thenOnlyMatchTheSamePassword() {
+        verifiedCredentialCache.verified("test", "secret",
+            verifiedCredentialCache.invalidations());
+
+        assertThat(verifiedCredentialCache.isVerified("test", "secret")).isTrue();
+        assertThat(verifiedCredentialCache.isVerified("test", "Secret")).isFalse();
+        assertThat(verifiedCredentialCache.isVerified("other", "secret")).isFalse();
+    }
+
+    @Test
+    public void givenInvalidatedUser_whenIsVerified_thenReturnFalse() {
+        verifiedCredentialCache.verified("test", "secret",
+            verifiedCredentialCache.invalidations());
+        verifiedCredentialCache.invalidate("test");
+
+        assertThat(verifiedCredentialCache.isVerified("test", "secret")).isFalse();
+    }
+
+    @Test
+    public void givenInvalidationDuringVerification_whenVerified_thenDoNotCache() {
+        long invalidations = verifiedCredentialCache.invalidations();
+
+        verifiedCredentialCache.invalidate("test");
+        verifiedCredentialCache.verified("test", "secret", invalidations);
+
+        assertThat(verifiedCredentialCache.isVerified("test", "secret")).isFalse();
+    }
+}
@@ -0,0 +1,75 @@
+package wolox.training.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.dto.BulkResultDTO;
+import wolox.training.repositories.BookRepository;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import(BookBulkService.class)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookBulkServiceTest {
+
+    @Autowired
+    private BookBulkService bookBulkService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @AfterEach
+    public void deleteBooks() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    public void givenArray_whenIngest_thenCreateAllBooks() throws Exception {
+        BulkResultDTO result = bookBulkService.ingest(input("["
+            + book("0-330-25864-8", "Douglas Adams") + ","
+            + book("0-330-26213-0", "Douglas Adams") + "]"));
+
+        assertThat(result.getReceived()).isEqualTo(2);
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(bookRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenInvalidRows_whenIngest_thenCreateOnlyValidBooks() throws Exception {
+        BulkResultDTO result = bookBulkService.ingest(input(
+            book("0-330-25864-8", "Douglas Adams") + "\n"
+                + book("0-330-26213-0", "") + "\n"
+                + book("0-330-25864-8", "Douglas Adams") + "\n"));
+
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting("row").containsExactly(2, 3);
+        assertThat(bookRepository.findByIsbn("0-330-25864-8")).isPresent();
+    }
+
+    private static String book(String isbn, String author) {
+        return "{\"genre\": \"Science Fiction\", \"author\": \"" + author + "\","
+            + " \"image\": \"image.jpg\", \"title\": \"The Hitchhiker's Guide to the Galaxy\","
+            + " \"subtitle\": \"placeholder\", \"publisher\": \"Pan Books\", \"year\": \"1979\","
+            + " \"pages\": 180, \"isbn\": \"" + isbn + "\"}";
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,72 @@
+package wolox.training.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.dto.FacetsDTO;
+import wolox.training.events.BookEvent;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookFilter;
+import wolox.training.repositories.BookRepository;
+
+public class BookFacetServiceTest {
+
+    private static final BookFilter ALL = new BookFilter(null, null, null, null, null, null,
+        null, null, null, null);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void givenEventsDuringTheScan_whenRebuild_thenCountEveryBookOnce() {
+        BookRepository bookRepository = mock(BookRepository.class);
+        BookFacetService bookFacetService = new BookFacetService();
+        ReflectionTestUtils.setField(bookFacetService, "bookRepository", bookRepository);
+        bookFacetService.start();
+
+        Book fiction = book(1, "Fiction", 0);
+        Book poetry = book(1, "Poetry", 1);
+        Book science = book(2, "Science", 0);
+        Map<String, Object> previous = new HashMap<String, Object>();
+        previous.put("genre", "Fiction");
+        previous.put("publisher", "Pan Books");
+        previous.put("year", "1979");
+
+        willAnswer(invocation -> {
+            Consumer<Book> action = invocation.getArgument(0);
+
+            // The first book is updated after the scan read it, the second is created before
+            action.accept(fiction);
+            bookFacetService.onBookEvent(new BookEvent(BookEvent.Type.UPDATED, poetry, previous));
+            bookFacetService.onBookEvent(new BookEvent(BookEvent.Type.CREATED, science));
+            action.accept(science);
+            return null;
+        }).given(bookRepository).scanAll(any(Consumer.class));
+
+        bookFacetService.rebuild();
+        FacetsDTO facets = bookFacetService.facets(ALL, 10);
+
+        assertThat(facets.getGenre()).containsOnlyKeys("Poetry", "Science")
+            .containsEntry("Poetry", 1L)
+            .containsEntry("Science", 1L);
+        assertThat(facets.getPublisher()).containsEntry("Pan Books", 2L);
+        verify(bookRepository, times(1)).scanAll(any(Consumer.class));
+
+        bookFacetService.stop();
+    }
+
+    private Book book(long id, String genre, long version) {
+        Book book = new Book(id, genre, "Douglas Adams", "image.jpg",
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books", "1979", 180,
+            "0-330-25864-" + id);
+        book.setVersion(version);
+        return book;
+    }
+}
@@ -0,0 +1,99 @@
+package wolox.training.services;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.config.OpenLibraryClientConfig;
+import wolox.training.config.OpenLibraryResilienceConfig;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = "books.refresh.pageDelayMillis=0")
+@Import({BookRefreshService.class, JobLockService.class, OpenLibraryService.class,
+    OpenLibraryCache.class, OpenLibraryDiskCache.class, OpenLibraryBatcher.class,
+    OpenLibraryClient.class, OpenLibraryClientConfig.class, OpenLibraryResilienceConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookRefreshServiceTest {
+
+    private static final String JOB = "book_refresh";
+
+    @Autowired
+    private BookRefreshService bookRefreshService;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private WireMockServer wireMockServer;
+
+    @BeforeEach
+    public void startOpenLibrary() {
+        wireMockServer = new WireMockServer();
+        wireMockServer.givenThat(
+            WireMock.get(urlPathEqualTo("/api/books"))
+                .willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBodyFile("response_ok_books.json")));
+        wireMockServer.start();
+    }
+
+    @AfterEach
+    public void stopOpenLibrary() {
+        wireMockServer.stop();
+        jobLockService.release(JOB, "other");
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    public void givenStaleBooks_whenRefresh_thenUpdateChangedAttributes() {
+        Book guide = bookRepository.save(new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "Old title", "placeholder", "Pan Books", "1979", 180, "0330258648"));
+        Book restaurant = bookRepository.save(new Book("Science Fiction", "Douglas Adams",
+            "image.jpg", "The Restaurant at the End of the Universe", "placeholder",
+            "Pan Books", "1980", 100, "0330262130"));
+
+        assertThat(bookRefreshService.refresh()).isEqualTo(2);
+
+        Book refreshedGuide = bookRepository.findById(guide.getId()).get();
+        Book refreshedRestaurant = bookRepository.findById(restaurant.getId()).get();
+
+        assertThat(refreshedGuide.getTitle()).isEqualTo("The Hitchhiker's Guide to the Galaxy");
+        assertThat(refreshedGuide.getGenre()).isEqualTo("Science Fiction");
+        assertThat(refreshedGuide.getRefreshedAt()).isNotNull();
+        assertThat(refreshedRestaurant.getPages()).isEqualTo(208);
+        assertThat(jobLockService.checkpoint(JOB)).isZero();
+
+        assertThat(bookRefreshService.refresh()).isZero();
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/api/books")));
+    }
+
+    @Test
+    public void givenJobLockedByAnotherNode_whenRefresh_thenDoNothing() {
+        bookRepository.save(new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "Old title", "placeholder", "Pan Books", "1979", 180, "0330258648"));
+
+        assertThat(jobLockService.acquire(JOB, "other", Duration.ofMinutes(1))).isTrue();
+        assertThat(bookRefreshService.refresh()).isZero();
+
+        wireMockServer.verify(0, getRequestedFor(urlPathEqualTo("/api/books")));
+    }
+}
@@ -0,0 +1,42 @@
+package wolox.training.services;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import wolox.training.dto.CoverSize;
+import wolox.training.exceptions.CoverNotFoundException;
+import wolox.training.models.Book;
+
+public class CoverImageServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void givenImageOutsideTheAllowedHosts_whenCover_thenThrowNotFound() throws Exception {
+        CoverImageService coverImageService = new CoverImageService();
+        ReflectionTestUtils.setField(coverImageService, "directory", directory.toString());
+        ReflectionTestUtils.setField(coverImageService, "maxBytes", 1024L);
+        ReflectionTestUtils.setField(coverImageService, "allowedHosts",
+            new String[]{"covers.openlibrary.org"});
+        coverImageService.open();
+
+        for (String image : new String[]{"http://169.254.169.254/latest/meta-data-S.jpg",
+            "http://localhost:8080/actuator-S.jpg", "file:///etc/passwd",
+            "http://covers.openlibrary.org:8080/b/id/1-S.jpg",
+            "http://user@covers.openlibrary.org/b/id/1-S.jpg",
+            "https://covers.openlibrary.org.evil.com/b/id/1-S.jpg"}) {
+            assertThrows(CoverNotFoundException.class,
+                () -> coverImageService.cover(book(image), CoverSize.SMALL));
+        }
+    }
+
+    private Book book(String image) {
+        return new Book(1, "Science Fiction", "Douglas Adams", image,
+            "The Hitchhiker's Guide to the Galaxy", "placeholder", "Pan Books", "1979", 180,
+            "0-330-25864-8");
+    }
+}
@@ -0,0 +1,100 @@
+package wolox.training.services;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.http.Fault;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import wolox.training.config.OpenLibraryClientConfig;
+import wolox.training.config.OpenLibraryResilienceConfig;
+import wolox.training.exceptions.OpenLibraryUnavailableException;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {OpenLibraryClient.class, OpenLibraryClientConfig.class,
+    OpenLibraryResilienceConfig.class}, properties = {
+    "openLibrary.http.readTimeoutMillis=300",
+    "openLibrary.circuitBreaker.windowSize=2",
+    "openLibrary.circuitBreaker.minimumCalls=2"})
+public class OpenLibraryClientTest {
+
+    private static final String URL =
+        "/api/books?bibkeys=ISBN:0330258648&format=json&jscmd=data";
+
+    private static final List<String> ISBNS = Collections.singletonList("0330258648");
+
+    @Autowired
+    private OpenLibraryClient openLibraryClient;
+
+    @Autowired
+    private CircuitBreaker openLibraryCircuitBreaker;
+
+    private WireMockServer wireMockServer;
+
+    @BeforeEach
+    public void startOpenLibrary() {
+        openLibraryCircuitBreaker.reset();
+        wireMockServer = new WireMockServer();
+        wireMockServer.start();
+    }
+
+    @AfterEach
+    public void stopOpenLibrary() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    public void givenBook_whenFetch_thenReturnBookByIsbn() {
+        wireMockServer.givenThat(
+            WireMock.get(urlEqualTo(URL))
+                .willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBodyFile("response_ok_book.json")));
+
+        assertThat(openLibraryClient.fetch(ISBNS).get("0330258648").getTitle())
+            .isEqualTo("The Hitchhiker's Guide to the Galaxy");
+    }
+
+    @Test
+    public void givenConnectionResets_whenFetch_thenOpenCircuitAndFailFast() {
+        wireMockServer.givenThat(
+            WireMock.get(urlEqualTo(URL))
+                .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(OpenLibraryUnavailableException.class,
+                () -> openLibraryClient.fetch(ISBNS));
+        }
+
+        assertThat(openLibraryCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        wireMockServer.verify(2, getRequestedFor(urlEqualTo(URL)));
+    }
+
+    @Test
+    public void givenSlowResponse_whenFetch_thenTimeOut() {
+        wireMockServer.givenThat(
+            WireMock.get(urlEqualTo(URL))
+                .willReturn(aResponse()
+                    .withStatus(200)
+                    .withFixedDelay(1000)
+                    .withHeader("Content-Type", "application/json")
+                    .withBodyFile("response_ok_book.json")));
+
+        assertThrows(OpenLibraryUnavailableException.class,
+            () -> openLibraryClient.fetch(ISBNS));
+    }
+}
@@ -0,0 +1,58 @@
+package wolox.training.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import wolox.training.dto.OpenLibraryBookDTO;
+
+public class OpenLibraryResponseParserTest {
+
+    @Test
+    public void whenParse_thenReadBookFields() throws Exception {
+        Map<String, OpenLibraryBookDTO> books;
+
+        try (InputStream body = getClass().getResourceAsStream("/__files/response_ok_book.json")) {
+            books = OpenLibraryResponseParser.parse(body);
+        }
+
+        OpenLibraryBookDTO book = books.get("ISBN:0330258648");
+
+        assertThat(book.getTitle()).isEqualTo("The Hitchhiker's Guide to the Galaxy");
+        assertThat(book.getSubtitle()).isEqualTo("placeholder");
+        assertThat(book.getPublishDate()).isEqualTo("1979");
+        assertThat(book.getNumberOfPages()).isEqualTo(180);
+        assertThat(book.getJoinedAuthors()).isEqualTo("Douglas Adams");
+        assertThat(book.getJoinedPublishers()).isEqualTo("Pan Books");
+        assertThat(book.getCover().getSmall()).isEqualTo("image.jpg");
+    }
+
+    @Test
+    public void whenParseUnknownFields_thenSkipThemAndJoinNames() throws Exception {
+        String json = "{\"ISBN:0330287001\": {\"subjects\": [{\"name\": \"Fiction\"}],"
+            + " \"authors\": [{\"name\": \"Douglas Adams\", \"url\": \"x\"}, {\"name\": \"Eoin"
+            + " Colfer\"}], \"excerpts\": [{\"text\": \"Far out\"}], \"number_of_pages\": \"204\","
+            + " \"publishers\": [{\"name\": \"Pan Books\"}, {\"name\": \"Macmillan\"}],"
+            + " \"subtitle\": null, \"title\": \"So Long\"}}";
+
+        Map<String, OpenLibraryBookDTO> books = OpenLibraryResponseParser
+            .parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        OpenLibraryBookDTO book = books.get("ISBN:0330287001");
+
+        assertThat(book.getTitle()).isEqualTo("So Long");
+        assertThat(book.getSubtitle()).isNull();
+        assertThat(book.getNumberOfPages()).isEqualTo(204);
+        assertThat(book.getJoinedAuthors()).isEqualTo("Douglas Adams,Eoin Colfer");
+        assertThat(book.getJoinedPublishers()).isEqualTo("Pan Books,Macmillan");
+        assertThat(book.getCover()).isNull();
+    }
+
+    @Test
+    public void whenParseEmptyAnswer_thenReturnNoBooks() throws Exception {
+        assertThat(OpenLibraryResponseParser
+            .parse(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)))).isEmpty();
+    }
+}
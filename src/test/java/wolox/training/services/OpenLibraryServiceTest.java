@@ -0,0 +1,163 @@
+package wolox.training.services;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import wolox.training.config.OpenLibraryClientConfig;
+import wolox.training.config.OpenLibraryResilienceConfig;
+import wolox.training.models.Book;
+import wolox.training.repositories.BookRepository;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({OpenLibraryService.class, OpenLibraryCache.class, OpenLibraryDiskCache.class,
+    OpenLibraryBatcher.class, OpenLibraryClient.class, OpenLibraryClientConfig.class,
+    OpenLibraryResilienceConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OpenLibraryServiceTest {
+
+    private static final String URL =
+        "/api/books?bibkeys=ISBN:0330258648&format=json&jscmd=data";
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OpenLibraryService openLibraryService;
+
+    @Autowired
+    private OpenLibraryCache openLibraryCache;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private WireMockServer wireMockServer;
+
+    @BeforeEach
+    public void startOpenLibrary() {
+        wireMockServer = new WireMockServer();
+        wireMockServer.givenThat(
+            WireMock.get(urlEqualTo(URL))
+                .willReturn(aResponse()
+                    .withStatus(200)
+                    .withFixedDelay(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBodyFile("response_ok_book.json")));
+        wireMockServer.start();
+    }
+
+    @AfterEach
+    public void stopOpenLibrary() {
+        wireMockServer.stop();
+        openLibraryCache.invalidateAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    public void givenConcurrentSearches_whenSameIsbn_thenFetchAndSaveOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<Book>>> results = new ArrayList<Future<ResponseEntity<Book>>>();
+
+        for (int i = 0; i < THREADS; i++) {
+            Callable<ResponseEntity<Book>> search = () -> {
+                start.await();
+                return openLibraryService.search("0330258648");
+            };
+            results.add(executor.submit(search));
+        }
+
+        start.countDown();
+
+        for (Future<ResponseEntity<Book>> result : results) {
+            assertThat(result.get().getStatusCode()).isIn(HttpStatus.CREATED, HttpStatus.OK);
+            assertThat(result.get().getBody().getIsbn()).isEqualTo("0330258648");
+        }
+
+        executor.shutdown();
+
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo(URL)));
+        assertThat(bookRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenIsbnWithHyphens_whenSearch_thenImportTheNormalizedIsbnOnce() {
+        ResponseEntity<Book> created = openLibraryService.search("0-330-25864-8");
+        ResponseEntity<Book> found = openLibraryService.search("0330258648");
+
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(created.getBody().getIsbn()).isEqualTo("0330258648");
+        assertThat(found.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(found.getBody().getId()).isEqualTo(created.getBody().getId());
+
+        wireMockServer.verify(1, getRequestedFor(urlEqualTo(URL)));
+        assertThat(bookRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenBookWithoutCover_whenSearch_thenImportItWithoutImage() {
+        wireMockServer.givenThat(
+            WireMock.get(urlEqualTo(URL))
+                .willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("{\"ISBN:0330258648\": {\"title\": \"The Hitchhiker's Guide to the"
+                        + " Galaxy\", \"subtitle\": \"placeholder\", \"number_of_pages\": 180,"
+                        + " \"publish_date\": \"1979\", \"publishers\": [{\"name\": \"Pan"
+                        + " Books\"}], \"authors\": [{\"name\": \"Douglas Adams\"}]}}")));
+
+        ResponseEntity<Book> created = openLibraryService.search("0330258648");
+
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(created.getBody().getImage()).isEqualTo("no image");
+    }
+
+    @Test
+    public void givenManyIsbns_whenSearchAll_thenFetchMissingBooksInOneRequest() {
+        bookRepository.save(new Book("Science Fiction", "Douglas Adams", "image.jpg",
+            "So Long, and Thanks for All the Fish", "placeholder", "Pan Books", "1984", 204,
+            "0330287001"));
+
+        wireMockServer.givenThat(
+            WireMock.get(urlPathEqualTo("/api/books"))
+                .withQueryParam("bibkeys",
+                    equalTo("ISBN:0330258648,ISBN:0330262130,ISBN:0000000000"))
+                .willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBodyFile("response_ok_books.json")));
+
+        List<Book> books = openLibraryService.searchAll(
+            Arrays.asList("0330287001", "0330258648", "0330262130", "0000000000", "0330258648"));
+
+        assertThat(books).extracting("isbn")
+            .containsExactly("0330287001", "0330258648", "0330262130");
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/api/books")));
+        assertThat(bookRepository.count()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,38 @@
+package wolox.training.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = PasswordEncoderService.class, properties = {
+    "security.password.algorithm=pbkdf2",
+    "security.password.pbkdf2Iterations=1000"})
+public class PasswordEncoderServiceTest {
+
+    @Autowired
+    private PasswordEncoderService passwordEncoderService;
+
+    @Test
+    public void whenEncode_thenMatchOnlyTheSamePassword() {
+        String hash = passwordEncoderService.encode("lewis");
+
+        assertThat(hash).startsWith("{pbkdf2}");
+        assertThat(passwordEncoderService.matches("lewis", hash)).isTrue();
+        assertThat(passwordEncoderService.matches("Lewis", hash)).isFalse();
+        assertThat(passwordEncoderService.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    public void givenLegacyBcryptHash_whenMatches_thenVerifyAndAskForUpgrade() {
+        String legacy = new BCryptPasswordEncoder(4).encode("lewis");
+
+        assertThat(passwordEncoderService.matches("lewis", legacy)).isTrue();
+        assertThat(passwordEncoderService.upgradeEncoding(legacy)).isTrue();
+    }
+}
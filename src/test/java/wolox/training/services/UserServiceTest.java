@@ -0,0 +1,77 @@
+package wolox.training.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.junit4.SpringRunner;
+import wolox.training.models.User;
+import wolox.training.repositories.UserRepository;
+import wolox.training.security.VerifiedCredentialCache;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = {
+    "security.password.algorithm=bcrypt",
+    "security.password.bcryptStrength=5"})
+@Import({UserService.class, PasswordEncoderService.class})
+public class UserServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordEncoderService passwordEncoderService;
+
+    @MockBean
+    private VerifiedCredentialCache verifiedCredentialCache;
+
+    @Test
+    public void givenHashOfLowerStrength_whenUpgradePassword_thenRewriteTheHash() {
+        User user = new User("mary", "Mary Lewis", LocalDate.of(1990, 1, 1),
+            "{bcrypt}" + new BCryptPasswordEncoder(4).encode("lewis"));
+
+        entityManager.persist(user);
+        entityManager.flush();
+
+        userService.upgradePassword(user, "lewis");
+
+        entityManager.clear();
+        String upgraded = entityManager.find(User.class, user.getId()).getPassword();
+
+        assertThat(upgraded).startsWith("{bcrypt}$2a$05$");
+        assertThat(passwordEncoderService.matches("lewis", upgraded)).isTrue();
+        assertThat(passwordEncoderService.upgradeEncoding(upgraded)).isFalse();
+    }
+
+    @Test
+    public void givenPasswordChangedSinceRead_whenUpgradePassword_thenKeepTheNewHash() {
+        String previous = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("lewis");
+        User user = new User("mary", "Mary Lewis", LocalDate.of(1990, 1, 1), previous);
+
+        entityManager.persist(user);
+        entityManager.flush();
+
+        // The user still holds the hash that was read before the password changed
+        String changed = passwordEncoderService.encode("changed");
+        assertThat(userRepository.updatePassword(user.getId(), previous, changed)).isEqualTo(1);
+
+        userService.upgradePassword(user, "lewis");
+
+        entityManager.clear();
+        assertThat(entityManager.find(User.class, user.getId()).getPassword())
+            .isEqualTo(changed);
+    }
+}
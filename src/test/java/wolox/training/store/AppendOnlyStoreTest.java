@@ -0,0 +1,117 @@
+package wolox.training.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AppendOnlyStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void whenPut_thenGetReturnsTheLastValue() throws Exception {
+        try (AppendOnlyStore store = AppendOnlyStore.open(directory, 16)) {
+            store.put("0330258648", bytes("first"));
+            store.put("0330262130", bytes("second"));
+            store.put("0330258648", bytes("third"));
+
+            assertThat(store.get("0330258648")).isEqualTo(bytes("third"));
+            assertThat(store.get("0330262130")).isEqualTo(bytes("second"));
+            assertThat(store.get("0000000000")).isNull();
+            assertThat(store.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void whenReopen_thenValuesSurvive() throws Exception {
+        try (AppendOnlyStore store = AppendOnlyStore.open(directory, 4)) {
+            for (int i = 0; i < 100; i++) {
+                store.put("key" + i, bytes("value" + i));
+            }
+        }
+
+        try (AppendOnlyStore store = AppendOnlyStore.open(directory, 4)) {
+            assertThat(store.size()).isEqualTo(100);
+
+            for (int i = 0; i < 100; i++) {
+                assertThat(store.get("key" + i)).isEqualTo(bytes("value" + i));
+            }
+        }
+    }
+
+    @Test
+    public void whenCompact_thenDropGarbageAndKeepValues() throws Exception {
+        try (AppendOnlyStore store = AppendOnlyStore.open(directory, 64)) {
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < 20; i++) {
+                    store.put("key" + i, bytes("value" + round + "-" + i));
+                }
+            }
+
+            long before = store.logBytes();
+            assertThat(store.garbageRatio()).isGreaterThan(0.5);
+
+            store.compact();
+
+            assertThat(store.garbageRatio()).isZero();
+            assertThat(store.logBytes()).isLessThan(before);
+
+            for (int i = 0; i < 20; i++) {
+                assertThat(store.get("key" + i)).isEqualTo(bytes("value2-" + i));
+            }
+        }
+    }
+
+    @Test
+    public void whenReopenAfterCompact_thenOpenTheNewGeneration() throws Exception {
+        try (AppendOnlyStore store = AppendOnlyStore.open(directory, 4)) {
+            for (int i = 0; i < 10; i++) {
+                store.put("key" + i, bytes("value" + i));
+            }
+
+            store.compact();
+        }
+
+        // The files of a rewrite that crashed before it became current
+        Files.write(directory.resolve("data.log.2"), bytes("garbage"));
+        Files.write(directory.resolve("index.bin.2"), bytes("garbage"));
+
+        try (AppendOnlyStore store = AppendOnlyStore.open(directory, 4)) {
+            for (int i = 0; i < 10; i++) {
+                assertThat(store.get("key" + i)).isEqualTo(bytes("value" + i));
+            }
+        }
+
+        assertThat(Files.exists(directory.resolve("data.log"))).isFalse();
+        assertThat(Files.exists(directory.resolve("data.log.2"))).isFalse();
+        assertThat(Files.exists(directory.resolve("index.bin.2"))).isFalse();
+    }
+
+    @Test
+    public void givenCorruptRecordLength_whenGet_thenReturnNull() throws Exception {
+        try (AppendOnlyStore store = AppendOnlyStore.open(directory, 16)) {
+            store.put("0330258648", bytes("first"));
+        }
+
+        try (FileChannel log = FileChannel.open(directory.resolve("data.log"),
+            StandardOpenOption.WRITE)) {
+            log.write(ByteBuffer.allocate(4).putInt(0, -7), 4);
+        }
+
+        try (AppendOnlyStore store = AppendOnlyStore.open(directory, 16)) {
+            assertThat(store.get("0330258648")).isNull();
+        }
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,78 @@
+package wolox.training.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import wolox.training.store.CoverStore.CoverFile;
+
+public class CoverStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void whenPut_thenGetReturnsTheFileWithAStableEtag() throws Exception {
+        CoverStore store = CoverStore.open(directory, 1024);
+
+        CoverFile first = store.put("cover", ".jpg", image(100, 1));
+        CoverFile second = store.put("cover", ".jpg", image(100, 1));
+        CoverFile other = store.put("other", ".jpg", image(100, 2));
+
+        assertThat(second.getEtag()).isEqualTo(first.getEtag());
+        assertThat(other.getEtag()).isNotEqualTo(first.getEtag());
+        assertThat(store.get("cover").getPath()).isEqualTo(second.getPath());
+        assertThat(Files.size(second.getPath())).isEqualTo(100);
+        assertThat(store.bytes()).isEqualTo(200);
+    }
+
+    @Test
+    public void whenOverTheBudget_thenEvictTheLeastRecentlyUsed() throws Exception {
+        CoverStore store = CoverStore.open(directory, 250, 0);
+
+        CoverFile first = store.put("first", ".jpg", image(100, 1));
+        CoverFile second = store.put("second", ".jpg", image(100, 2));
+        store.get("first");
+        store.put("third", ".jpg", image(100, 3));
+
+        assertThat(store.get("second")).isNull();
+        assertThat(Files.exists(second.getPath())).isFalse();
+        assertThat(store.get("first").getPath()).isEqualTo(first.getPath());
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.bytes()).isEqualTo(200);
+    }
+
+    @Test
+    public void whenEvicted_thenKeepTheFileForTheDelay() throws Exception {
+        CoverStore store = CoverStore.open(directory, 150, 60000);
+
+        CoverFile first = store.put("first", ".jpg", image(100, 1));
+        store.put("second", ".jpg", image(100, 2));
+
+        assertThat(store.get("first")).isNull();
+        assertThat(Files.exists(first.getPath())).isTrue();
+    }
+
+    @Test
+    public void whenReopen_thenFilesSurvive() throws Exception {
+        CoverFile cover = CoverStore.open(directory, 1024).put("cover", ".png", image(10, 1));
+
+        CoverStore store = CoverStore.open(directory, 1024);
+
+        assertThat(store.get("cover").getEtag()).isEqualTo(cover.getEtag());
+        assertThat(store.get("cover").getLength()).isEqualTo(10);
+    }
+
+    private ByteArrayInputStream image(int length, int seed) {
+        byte[] bytes = new byte[length];
+
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * seed);
+        }
+
+        return new ByteArrayInputStream(bytes);
+    }
+}